@@ -0,0 +1,246 @@
+package com.alten.shop;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * End-to-end latency and capacity of {@code GET /api/products} and {@code GET /api/cart} with Tomcat
+ * on its platform-thread pool against virtual threads ({@code spring.threads.virtual.enabled}).
+ * <p>
+ * {@code products} and {@code cart} keep 400 clients in flight, more than the 200 platform request
+ * threads, and report p99 per mode in sample-time mode. {@code maxConcurrency} ramps the client count
+ * through {@code clients}, holding each step for {@code step}, and stops at the first step whose p99
+ * exceeds {@code p99ThresholdMs} or whose error rate exceeds {@code maxErrorRate}. The last step that
+ * passed is reported per mode as the {@code sustainedClients} secondary metric in the JSON results,
+ * with its p99 as {@code sustainedP99Ms}; its primary score is meaningless. The profile's default
+ * {@code jmh.args} override its single iteration, so run the ramp alone with
+ * {@code -Djmh.args="-f 1 -wi 0 -i 1" -Djmh.include=RequestThreadModeBenchmark.maxConcurrency}.
+ * The fork traces pinned virtual threads to stdout.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class RequestThreadModeBenchmark {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest products;
+    private HttpRequest cart;
+
+    /**
+     * Ramp of {@code maxConcurrency}: client counts separated by spaces (JMH splits -p values on commas).
+     */
+    @State(Scope.Benchmark)
+    public static class Ramp {
+
+        @Param("50 100 200 400 800 1600")
+        public String clients;
+
+        @Param("PT10S")
+        public String step;
+
+        @Param("250")
+        public long p99ThresholdMs;
+
+        @Param("0.01")
+        public double maxErrorRate;
+    }
+
+    // Written once per ramp; EVENTS counters are reported as is, not divided by the iteration time
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Capacity {
+
+        public long sustainedClients;
+        public long sustainedP99Ms;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            sustainedClients = 0;
+            sustainedP99Ms = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void start() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(ShopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--logging.level.root=WARN",
+                "--logging.level.com.alten.shop=WARN");
+        String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newHttpClient();
+
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/token"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"email\":\"hosnibey@admin.com\",\"password\":\"hosnibey\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher token = TOKEN.matcher(login.body());
+        if (!token.find()) {
+            throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+        }
+
+        products = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products"))
+                .header("Authorization", "Bearer " + token.group(1))
+                .GET()
+                .build();
+        cart = HttpRequest.newBuilder(URI.create(baseUrl + "/api/cart"))
+                .header("Authorization", "Bearer " + token.group(1))
+                .GET()
+                .build();
+        // The first cart request creates the cart
+        send(cart);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(400)
+    public int products() throws IOException, InterruptedException {
+        return send(products);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Threads(400)
+    public int cart() throws IOException, InterruptedException {
+        return send(cart);
+    }
+
+    // One invocation runs the whole ramp, which outlasts the 1 s iteration, so the iteration ends with it
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(1)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1, time = 1)
+    public void maxConcurrency(Ramp ramp, Capacity capacity) throws InterruptedException, ExecutionException {
+        Duration step = Duration.parse(ramp.step);
+        String[] levels = ramp.clients.trim().split("\\s+");
+        // There is no warmup iteration: the first step is run once untimed to warm up the JIT
+        runStep(Integer.parseInt(levels[0]), step);
+        for (String level : levels) {
+            int clients = Integer.parseInt(level);
+            Step result = runStep(clients, step);
+            boolean sustained = result.p99Millis() <= ramp.p99ThresholdMs
+                    && result.errorRate() <= ramp.maxErrorRate;
+            System.out.printf("virtualThreads=%s clients=%d requests=%d p99=%d ms errors=%.2f%% %s%n",
+                    virtualThreads, clients, result.requests(), result.p99Millis(),
+                    result.errorRate() * 100, sustained ? "sustained" : "over threshold");
+            if (!sustained) {
+                return;
+            }
+            capacity.sustainedClients = clients;
+            capacity.sustainedP99Ms = result.p99Millis();
+        }
+    }
+
+    // Each client alternates products and cart requests until the step ends
+    private Step runStep(int clients, Duration step) throws InterruptedException, ExecutionException {
+        HttpRequest timedProducts = HttpRequest.newBuilder(products, (name, value) -> true)
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+        HttpRequest timedCart = HttpRequest.newBuilder(cart, (name, value) -> true)
+                .timeout(REQUEST_TIMEOUT)
+                .build();
+        long deadline = System.nanoTime() + step.toNanos();
+        List<Future<ClientResult>> results = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> {
+                    ClientResult result = new ClientResult();
+                    boolean productsNext = true;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = client.send(productsNext ? timedProducts : timedCart,
+                                    HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (IOException e) {
+                            ok = false;
+                        }
+                        result.record(System.nanoTime() - start, ok);
+                        productsNext = !productsNext;
+                    }
+                    return result;
+                }));
+            }
+        }
+
+        long[] latencies = new long[0];
+        int errors = 0;
+        for (Future<ClientResult> future : results) {
+            ClientResult result = future.get();
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + result.count);
+            System.arraycopy(result.latencies, 0, latencies, offset, result.count);
+            errors += result.errors;
+        }
+        if (latencies.length == 0) {
+            return new Step(0, Long.MAX_VALUE, 1.0);
+        }
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(latencies.length * 0.99) - 1];
+        return new Step(latencies.length, TimeUnit.NANOSECONDS.toMillis(p99), (double) errors / latencies.length);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode());
+        }
+        return response.statusCode();
+    }
+
+    private record Step(int requests, long p99Millis, double errorRate) {
+    }
+
+    private static final class ClientResult {
+
+        private long[] latencies = new long[256];
+        private int count;
+        private int errors;
+
+        void record(long nanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+}
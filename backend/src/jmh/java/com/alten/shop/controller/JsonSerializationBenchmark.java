@@ -0,0 +1,94 @@
+package com.alten.shop.controller;
+
+import com.alten.shop.dto.CartView;
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Response body serialization with an ObjectMapper configured like Spring MVC's:
+ * product listings, the cart entity graph and the slim {@link CartView} built from it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        products = IntStream.range(0, size).mapToObj(JsonSerializationBenchmark::product).toList();
+
+        cart = Cart.builder()
+                .id(1L)
+                .user(User.builder().id(1L).username("bench").firstname("Bench").email("bench@example.com")
+                        .password("{bcrypt}hash").build())
+                .items(new ArrayList<>())
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        // A cart holds far fewer lines than the catalog has products
+        for (int i = 0; i < Math.min(size, 50); i++) {
+            cart.getItems().add(CartItem.builder()
+                    .id((long) i)
+                    .cart(cart)
+                    .product(products.get(i))
+                    .quantity(1 + i % 3)
+                    .addedAt(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] productList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] cartEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(cart);
+    }
+
+    @Benchmark
+    public byte[] cartView() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(CartView.from(cart));
+    }
+
+    private static Product product(int i) {
+        return Product.builder()
+                .id((long) i)
+                .code("BENCH" + i)
+                .name("Benchmark product " + i)
+                .description("Product used to measure response serialization")
+                .image("https://example.com/products/" + i + ".jpg")
+                .category(i % 2 == 0 ? "Electronics" : "Accessories")
+                .price(10.0 + i)
+                .quantity(100)
+                .internalReference("REF-" + i)
+                .shellId((long) i)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .rating(4.5)
+                .createdAt(System.currentTimeMillis())
+                .updatedAt(System.currentTimeMillis())
+                .build();
+    }
+}
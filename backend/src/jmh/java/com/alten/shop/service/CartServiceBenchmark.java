@@ -0,0 +1,68 @@
+package com.alten.shop.service;
+
+import com.alten.shop.ShopApplication;
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link CartService#addToCart} through the Spring proxies (transaction, optimistic-lock retry)
+ * against the embedded H2 database: each call reserves one more unit on an existing cart line.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CartServiceBenchmark {
+
+    private static final String EMAIL = "cart-bench@example.com";
+
+    private ConfigurableApplicationContext context;
+    private CartService cartService;
+    private AddToCartRequest request;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(ShopApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:cart-bench;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN",
+                "--logging.level.com.alten.shop=WARN");
+        cartService = context.getBean(CartService.class);
+
+        context.getBean(UserRepository.class).save(User.builder()
+                .username("cartbench")
+                .firstname("Cart")
+                .email(EMAIL)
+                .password("unused")
+                .build());
+        Product product = context.getBean(ProductRepository.class).save(Product.builder()
+                .code("CARTBENCH")
+                .name("Cart benchmark product")
+                .category("Benchmark")
+                .price(9.99)
+                .quantity(Integer.MAX_VALUE / 2)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build());
+        request = new AddToCartRequest(product.getId(), 1);
+        cartService.addToCart(EMAIL, request);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public Cart addToCart() {
+        return cartService.addToCart(EMAIL, request);
+    }
+}
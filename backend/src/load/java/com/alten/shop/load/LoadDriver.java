@@ -0,0 +1,156 @@
+package com.alten.shop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load driver for a running shop backend.
+ * <p>
+ * Journeys start at a fixed arrival rate ({@code load.rate} per second) for {@code load.duration}, at most
+ * {@code load.concurrency} in flight. A share of them ({@code load.shopper-ratio}) are shoppers: register,
+ * get a token, browse, open a product, add to cart and check out. The others browse with one of
+ * {@code load.accounts} pre-registered accounts. When every slot is busy a journey starts late; that delay is
+ * recorded as {@code journey start delay}, so saturation shows up instead of being hidden by the driver.
+ * <p>
+ * Latencies are recorded per endpoint and per journey in HDR histograms, printed as a table and written as
+ * .hgrm percentile distributions to {@code load.output}. Browsing favours the first catalog pages; run the
+ * backend with the synthetic profile to have enough products and stock.
+ */
+public class LoadDriver {
+
+    private static final int PAGE_SIZE = 20;
+    private static final String PASSWORD = "load-password";
+
+    private final ShopClient client;
+    private final LatencyReport report;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong shoppers = new AtomicLong();
+    private final List<String> browserTokens = new ArrayList<>();
+    private int pages;
+
+    LoadDriver(ShopClient client, LatencyReport report) {
+        this.client = client;
+        this.report = report;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("load.baseUrl", "http://localhost:8080");
+        int concurrency = Integer.getInteger("load.concurrency", 50);
+        double rate = Double.parseDouble(System.getProperty("load.rate", "20"));
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        double shopperRatio = Double.parseDouble(System.getProperty("load.shopper-ratio", "0.3"));
+        int accounts = Integer.getInteger("load.accounts", 20);
+        Path output = Path.of(System.getProperty("load.output", "target/load"));
+
+        LatencyReport report = new LatencyReport();
+        LoadDriver driver = new LoadDriver(new ShopClient(baseUrl, report), report);
+        driver.prepare(accounts);
+
+        System.out.printf("Driving %s: %.1f journeys/s for %s, %d in flight at most, %.0f%% shoppers%n",
+                baseUrl, rate, duration, concurrency, shopperRatio * 100);
+        long started = System.nanoTime();
+        long journeys = driver.run(rate, duration, concurrency, shopperRatio);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%d journeys in %.1f s%n", journeys, seconds);
+        report.write(System.out, output, seconds);
+    }
+
+    /**
+     * Registers the browsing accounts and sizes the catalog; these calls are part of the report.
+     */
+    void prepare(int accounts) {
+        for (int i = 0; i < accounts; i++) {
+            String email = "browser-" + runId + "-" + i + "@load.test";
+            client.register(email, PASSWORD);
+            browserTokens.add(client.token(email, PASSWORD));
+        }
+        JsonNode count = client.productCount(browserTokens.get(0));
+        pages = (int) Math.max(1, count.get("totalElements").asLong() / PAGE_SIZE);
+    }
+
+    long run(double rate, Duration duration, int concurrency, double shopperRatio) throws InterruptedException {
+        Semaphore slots = new Semaphore(concurrency);
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long issued = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended = start + issued * intervalNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                slots.acquire();
+                report.record("journey start delay", Math.max(0, System.nanoTime() - intended));
+                boolean shopper = ThreadLocalRandom.current().nextDouble() < shopperRatio;
+                executor.execute(() -> {
+                    long journeyStart = System.nanoTime();
+                    String journey = shopper ? "journey shopper" : "journey browser";
+                    try {
+                        if (shopper) {
+                            shop();
+                        } else {
+                            browse(browserTokens.get(ThreadLocalRandom.current().nextInt(browserTokens.size())));
+                        }
+                        report.record(journey, System.nanoTime() - journeyStart);
+                    } catch (ShopClient.JourneyFailedException e) {
+                        report.error(journey);
+                    } finally {
+                        slots.release();
+                    }
+                });
+                issued++;
+            }
+        }
+        return issued;
+    }
+
+    private void shop() {
+        String email = "shopper-" + runId + "-" + shoppers.incrementAndGet() + "@load.test";
+        client.register(email, PASSWORD);
+        String token = client.token(email, PASSWORD);
+        List<Long> inStock = browse(token);
+        if (inStock.isEmpty()) {
+            throw new ShopClient.JourneyFailedException("No product in stock on the browsed page");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Collections.shuffle(inStock, random);
+        int lines = 1 + random.nextInt(Math.min(3, inStock.size()));
+        for (int i = 0; i < lines; i++) {
+            client.addToCart(token, inStock.get(i), 1);
+        }
+        client.checkout(token);
+    }
+
+    /**
+     * Opens one listing page, skewed towards the first pages, and one product of it.
+     *
+     * @return ids of the products on the page that are in stock
+     */
+    private List<Long> browse(String token) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int page = (int) (pages * Math.pow(random.nextDouble(), 3));
+        List<Long> inStock = new ArrayList<>();
+        for (JsonNode product : client.productPage(token, page, PAGE_SIZE).get("content")) {
+            if (!"OUTOFSTOCK".equals(product.get("inventoryStatus").asText())) {
+                inStock.add(product.get("id").asLong());
+            }
+        }
+        if (!inStock.isEmpty()) {
+            client.product(token, inStock.get(random.nextInt(inStock.size())));
+        }
+        return inStock;
+    }
+}
@@ -0,0 +1,114 @@
+package com.alten.shop.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Shop API calls used by the journeys; every call is timed under its endpoint name.
+ */
+class ShopClient {
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final LatencyReport report;
+
+    ShopClient(String baseUrl, LatencyReport report) {
+        this.baseUrl = baseUrl;
+        this.report = report;
+    }
+
+    void register(String email, String password) {
+        send("POST /account", post("/account", null, Map.of(
+                "username", email.substring(0, email.indexOf('@')),
+                "firstname", "Load",
+                "email", email,
+                "password", password)));
+    }
+
+    String token(String email, String password) {
+        return send("POST /token", post("/token", null, Map.of("email", email, "password", password)))
+                .get("token").asText();
+    }
+
+    JsonNode productPage(String token, int page, int size) {
+        return send("GET /api/products?page", get(
+                "/api/products?page=" + page + "&size=" + size + "&view=summary&count=false", token));
+    }
+
+    JsonNode productCount(String token) {
+        return send("GET /api/products?count", get("/api/products?page=0&size=1&view=summary", token));
+    }
+
+    JsonNode product(String token, long id) {
+        return send("GET /api/products/{id}", get("/api/products/" + id, token));
+    }
+
+    JsonNode addToCart(String token, long productId, int quantity) {
+        return send("POST /api/cart/items", post("/api/cart/items", token,
+                Map.of("productId", productId, "quantity", quantity)));
+    }
+
+    void checkout(String token) {
+        send("POST /api/cart/checkout", post("/api/cart/checkout", token, null));
+    }
+
+    private HttpRequest get(String path, String token) {
+        return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, Object body) {
+        try {
+            HttpRequest.BodyPublisher publisher = body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body));
+            return authorized(HttpRequest.newBuilder(URI.create(baseUrl + path)), token)
+                    .header("Content-Type", "application/json")
+                    .POST(publisher)
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static HttpRequest.Builder authorized(HttpRequest.Builder builder, String token) {
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    private JsonNode send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            report.record(endpoint, System.nanoTime() - start);
+            if (response.statusCode() >= 300) {
+                report.error(endpoint);
+                throw new JourneyFailedException(endpoint + " returned " + response.statusCode());
+            }
+            byte[] body = response.body();
+            return body.length == 0 || body[0] != '{' && body[0] != '[' ? null : objectMapper.readTree(body);
+        } catch (IOException e) {
+            report.error(endpoint);
+            throw new JourneyFailedException(endpoint + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JourneyFailedException(endpoint + " interrupted");
+        }
+    }
+
+    /**
+     * Ends the current journey; the failed call is already counted as an error.
+     */
+    static class JourneyFailedException extends RuntimeException {
+        JourneyFailedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.alten.shop.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Runs @Async methods on the auto-configured applicationTaskExecutor (spring.task.execution.*).
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -7,6 +7,7 @@ import com.alten.shop.repository.ProductRepository;
 import com.alten.shop.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -14,6 +15,7 @@ import java.util.Arrays;
 import java.util.List;
 
 @Component
+@Order(0)
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
@@ -35,6 +37,11 @@ public class DataInitializer implements CommandLineRunner {
             System.out.println("Admin user created: hosnibey@admin.com / hosnibey");
         }
 
+        // The docker profile keeps its database between restarts
+        if (productRepository.count() > 0) {
+            return;
+        }
+
         System.out.println("Initializing database with sample products...");
 
         List<Product> products = Arrays.asList(
@@ -0,0 +1,56 @@
+package com.alten.shop.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+@Configuration
+@EnableRetry
+public class RetryConfig {
+
+    private static final String CONFLICTS_ATTRIBUTE = "optimisticLockConflicts";
+
+    /**
+     * Counts optimistic lock conflicts, the retries they caused and the calls that gave up,
+     * published as cart.optimistic.conflicts / .retries / .exhausted.
+     */
+    @Bean
+    public RetryListener optimisticLockRetryListener(MeterRegistry meterRegistry) {
+        Counter conflicts = meterRegistry.counter("cart.optimistic.conflicts");
+        Counter retries = meterRegistry.counter("cart.optimistic.retries");
+        Counter exhausted = meterRegistry.counter("cart.optimistic.exhausted");
+
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(
+                    RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    conflicts.increment();
+                    Integer seen = (Integer) context.getAttribute(CONFLICTS_ATTRIBUTE);
+                    context.setAttribute(CONFLICTS_ATTRIBUTE, seen == null ? 1 : seen + 1);
+                }
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(
+                    RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+                Integer seen = (Integer) context.getAttribute(CONFLICTS_ATTRIBUTE);
+                int callConflicts = seen == null ? 0 : seen;
+                // Every conflict is followed by a retry, except the last one when the call gives up
+                if (throwable instanceof OptimisticLockingFailureException) {
+                    exhausted.increment();
+                    callConflicts--;
+                }
+                if (callConflicts > 0) {
+                    retries.increment(callConflicts);
+                }
+            }
+        };
+    }
+}
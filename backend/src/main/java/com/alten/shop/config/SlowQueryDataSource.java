@@ -0,0 +1,79 @@
+package com.alten.shop.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Times statement executions on connections of the wrapped pool and reports them to the {@link SlowQueryLogger}.
+ */
+class SlowQueryDataSource extends DelegatingDataSource {
+
+    private final SlowQueryLogger slowQueryLogger;
+
+    SlowQueryDataSource(DataSource target, SlowQueryLogger slowQueryLogger) {
+        super(target);
+        this.slowQueryLogger = slowQueryLogger;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "prepareStatement" -> proxy(PreparedStatement.class, result, statementHandler(result, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class, result, statementHandler(result, (String) args[0]));
+                case "createStatement" -> proxy(Statement.class, result, statementHandler(result, null));
+                default -> result;
+            };
+        });
+    }
+
+    private InvocationHandler statementHandler(Object statement, String preparedSql) {
+        return (proxy, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(statement, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(statement, method, args);
+            } finally {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String s ? s
+                        : "<batch>";
+                slowQueryLogger.record(sql, System.nanoTime() - start);
+            }
+        };
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SlowQueryDataSource.class.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+}
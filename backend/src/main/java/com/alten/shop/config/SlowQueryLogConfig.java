@@ -0,0 +1,40 @@
+package com.alten.shop.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application DataSource so slow statements are logged (db.slow-query.*).
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryLogConfig {
+
+    @Bean
+    public SlowQueryLogger slowQueryLogger(
+            @Value("${db.slow-query.threshold:PT0.2S}") Duration threshold,
+            @Value("${db.slow-query.sample-rate:1.0}") double sampleRate,
+            @Value("${db.slow-query.queue-capacity:1000}") int queueCapacity) {
+        return new SlowQueryLogger(threshold, sampleRate, queueCapacity);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLogger> slowQueryLogger) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource(dataSource, slowQueryLogger.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.alten.shop.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs JDBC statements slower than a threshold, with the application frame that issued them.
+ * <p>
+ * Only a sample of slow statements is kept; the call site is captured on the calling thread,
+ * the log line itself is written by a single background thread and dropped when its queue is full.
+ */
+@Slf4j
+public class SlowQueryLogger implements DisposableBean {
+
+    private static final String APP_PACKAGE = "com.alten.shop.";
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final ThreadPoolExecutor executor;
+
+    public SlowQueryLogger(Duration threshold, double sampleRate, int queueCapacity) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-log");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public void record(String sql, long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        String callSite = callSite();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        executor.execute(() -> log.warn("Slow query ({} ms) at {}: {}", elapsedMs, callSite, sql));
+    }
+
+    private static String callSite() {
+        Optional<StackWalker.StackFrame> frame = StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE))
+                .filter(f -> !isOwnFrame(f.getClassName()))
+                .filter(f -> !f.getClassName().contains("$$"))
+                .findFirst());
+        return frame
+                .map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber())
+                .orElse("unknown");
+    }
+
+    private static boolean isOwnFrame(String className) {
+        String outer = className.split("\\$", 2)[0];
+        return outer.equals(SlowQueryLogger.class.getName()) || outer.equals(SlowQueryDataSource.class.getName());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,202 @@
+package com.alten.shop.config;
+
+import com.alten.shop.model.InventoryStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeds a large synthetic data set for load and scale testing (profile {@code synthetic}, settings {@code synthetic.*}).
+ * <p>
+ * Rows are generated lazily and written with JDBC batch inserts, so only one batch is ever held on the heap.
+ * Product popularity follows a power law: carts and wishlists mostly reference the first products,
+ * and most carts hold few lines. Ids are taken from the entity sequences in blocks, so rows created
+ * afterwards through JPA do not collide; run it against an otherwise idle database.
+ * <p>
+ * Runs after {@link DataInitializer}. Synthetic users sign in as {@code user<n>@synthetic.test}
+ * with the password {@code password}.
+ */
+@Slf4j
+@Component
+@Profile("synthetic")
+@Order(1)
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    // Matches allocationSize on the entity sequences
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${synthetic.products:100000}")
+    private int products;
+
+    @Value("${synthetic.users:10000}")
+    private int users;
+
+    @Value("${synthetic.categories:Electronics,Accessories,Fitness,Clothing,Home,Books}")
+    private List<String> categories;
+
+    @Value("${synthetic.cart-ratio:0.6}")
+    private double cartRatio;
+
+    @Value("${synthetic.wishlist-ratio:0.3}")
+    private double wishlistRatio;
+
+    @Value("${synthetic.max-lines:10}")
+    private int maxLines;
+
+    @Value("${synthetic.skew:3.0}")
+    private double skew;
+
+    @Value("${synthetic.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${synthetic.seed:42}")
+    private long seed;
+
+    public SyntheticDataGenerator(
+            JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM users WHERE email = ?", Integer.class, email(0));
+        if (existing != null && existing > 0) {
+            log.info("Synthetic data already present, skipping generation");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = System.currentTimeMillis();
+
+        long firstProduct = reserveIds("products_seq", products);
+        insert("INSERT INTO products (id, code, name, description, image, category, price, quantity, "
+                        + "internal_reference, shell_id, inventory_status, rating, version, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)",
+                LongStream.range(0, products).mapToObj(i -> {
+                    int quantity = random.nextInt(200);
+                    return new Object[] { firstProduct + i, "SYN" + i, "Synthetic product " + i,
+                            "Generated product " + i + " for load testing", "https://picsum.photos/seed/" + i + "/400",
+                            categories.get((int) (i % categories.size())),
+                            Math.round(random.nextDouble(1, 2000) * 100) / 100.0, quantity,
+                            "SYN-REF-" + i, i % 100, status(quantity).name(),
+                            Math.round(random.nextDouble(1, 5) * 10) / 10.0, nowMillis, nowMillis };
+                }));
+
+        String password = passwordEncoder.encode("password");
+        long firstUser = reserveIds("users_seq", users);
+        insert("INSERT INTO users (id, username, firstname, email, password, created_at, updated_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                LongStream.range(0, users).mapToObj(i -> new Object[] {
+                        firstUser + i, "user" + i, "User " + i, email(i), password, now, now }));
+
+        int carts = (int) (users * cartRatio);
+        long firstCart = reserveIds("carts_seq", carts);
+        insert("INSERT INTO carts (id, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                LongStream.range(0, carts).mapToObj(i -> new Object[] { firstCart + i, firstUser + i, now, now }));
+
+        long firstCartItem = reserveIds("cart_items_seq", (long) carts * maxLines);
+        long[] cartItemId = { firstCartItem };
+        insert("INSERT INTO cart_items (id, cart_id, product_id, quantity, version, added_at) VALUES (?, ?, ?, ?, 0, ?)",
+                LongStream.range(0, carts).boxed().flatMap(cart -> pickProducts(random, firstProduct).stream()
+                        .map(product -> new Object[] { cartItemId[0]++, firstCart + cart, product,
+                                1 + (int) (4 * Math.pow(random.nextDouble(), 4)), now })));
+
+        // Wishlists go to the last users, so they only partly overlap the cart owners
+        int wishlists = (int) (users * wishlistRatio);
+        long firstWishlist = reserveIds("wishlists_seq", wishlists);
+        insert("INSERT INTO wishlists (id, user_id, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                LongStream.range(0, wishlists).mapToObj(i -> new Object[] {
+                        firstWishlist + i, firstUser + users - 1 - i, now, now }));
+
+        long firstWishlistItem = reserveIds("wishlist_items_seq", (long) wishlists * maxLines);
+        long[] wishlistItemId = { firstWishlistItem };
+        insert("INSERT INTO wishlist_items (id, wishlist_id, product_id, added_at) VALUES (?, ?, ?, ?)",
+                LongStream.range(0, wishlists).boxed().flatMap(wishlist -> pickProducts(random, firstProduct).stream()
+                        .map(product -> new Object[] { wishlistItemId[0]++, firstWishlist + wishlist, product, now })));
+
+        log.info("Generated {} products, {} users, {} carts ({} lines), {} wishlists ({} lines) in {} ms",
+                products, users, carts, cartItemId[0] - firstCartItem, wishlists, wishlistItemId[0] - firstWishlistItem,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Distinct products for one cart or wishlist: usually a couple of lines, popular products first.
+     */
+    private Set<Long> pickProducts(SplittableRandom random, long firstProduct) {
+        Set<Long> picked = new LinkedHashSet<>();
+        if (products == 0) {
+            return picked;
+        }
+        int lines = 1 + (int) ((maxLines - 1) * Math.pow(random.nextDouble(), 2));
+        for (int attempt = 0; picked.size() < lines && attempt < lines * 4; attempt++) {
+            picked.add(firstProduct + (long) (products * Math.pow(random.nextDouble(), skew)));
+        }
+        return picked;
+    }
+
+    /**
+     * Claims {@code count} consecutive ids above the current sequence value and moves the sequence past them.
+     */
+    private long reserveIds(String sequence, long count) {
+        Long current = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+        long first = current + 1;
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (first + count + SEQUENCE_INCREMENT));
+        return first;
+    }
+
+    private void insert(String sql, Stream<Object[]> rows) {
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        Iterator<Object[]> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            batch.add(iterator.next());
+            if (batch.size() == batchSize) {
+                flush(sql, batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(sql, batch);
+        }
+    }
+
+    // One commit per batch rather than per row
+    private void flush(String sql, List<Object[]> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        batch.clear();
+    }
+
+    private static InventoryStatus status(int quantity) {
+        if (quantity == 0) {
+            return InventoryStatus.OUTOFSTOCK;
+        }
+        return quantity < 10 ? InventoryStatus.LOWSTOCK : InventoryStatus.INSTOCK;
+    }
+
+    private static String email(long i) {
+        return "user" + i + "@synthetic.test";
+    }
+}
@@ -1,51 +1,70 @@
 package com.alten.shop.controller;
 
 import com.alten.shop.dto.AddToCartRequest;
-import com.alten.shop.model.Cart;
+import com.alten.shop.dto.CartBatchRequest;
+import com.alten.shop.dto.CartView;
 import com.alten.shop.service.CartService;
+import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
+@Validated
 @CrossOrigin(origins = "http://localhost:4200")
 public class CartController {
 
     private final CartService cartService;
+    private final IdempotencyStore idempotencyStore;
 
     @GetMapping
-    public ResponseEntity<Cart> getCart(Authentication authentication) {
-        Cart cart = cartService.getOrCreateCart(authentication.getName());
-        return ResponseEntity.ok(cart);
+    public ResponseEntity<CartView> getCart(Authentication authentication) {
+        return ResponseEntity.ok(CartView.from(cartService.getOrCreateCart(authentication.getName())));
     }
 
+    // A retry with the same Idempotency-Key replays the first response
     @PostMapping("/items")
-    public ResponseEntity<Cart> addToCart(
+    public ResponseEntity<?> addToCart(
             @Valid @RequestBody AddToCartRequest request,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
-        Cart cart = cartService.addToCart(authentication.getName(), request);
-        return ResponseEntity.ok(cart);
+        return idempotencyStore.execute(authentication.getName(), "addToCart", idempotencyKey, request,
+                () -> ResponseEntity.ok(CartView.from(cartService.addToCart(authentication.getName(), request))));
+    }
+
+    // Several line changes in one transaction, e.g. merging a guest cart after login
+    @PostMapping("/items/batch")
+    public ResponseEntity<?> applyOperations(
+            @Valid @RequestBody CartBatchRequest request,
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        return idempotencyStore.execute(authentication.getName(), "applyOperations", idempotencyKey, request,
+                () -> ResponseEntity.ok(CartView.from(
+                        cartService.applyOperations(authentication.getName(), request.operations()))));
     }
 
     @PutMapping("/items/{itemId}")
-    public ResponseEntity<Cart> updateCartItem(
+    public ResponseEntity<CartView> updateCartItem(
             @PathVariable Long itemId,
-            @RequestParam Integer quantity,
+            @RequestParam @Min(value = 1, message = "Quantity must be at least 1") Integer quantity,
             Authentication authentication) {
-        Cart cart = cartService.updateCartItemQuantity(authentication.getName(), itemId, quantity);
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(CartView.from(
+                cartService.updateCartItemQuantity(authentication.getName(), itemId, quantity)));
     }
 
     @DeleteMapping("/items/{itemId}")
-    public ResponseEntity<Cart> removeFromCart(
+    public ResponseEntity<CartView> removeFromCart(
             @PathVariable Long itemId,
             Authentication authentication) {
-        Cart cart = cartService.removeFromCart(authentication.getName(), itemId);
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(CartView.from(cartService.removeFromCart(authentication.getName(), itemId)));
     }
 
     @DeleteMapping
@@ -55,8 +74,23 @@ public class CartController {
     }
 
     @PostMapping("/checkout")
-    public ResponseEntity<String> checkout(Authentication authentication) {
-        cartService.checkout(authentication.getName());
-        return ResponseEntity.ok("Order placed successfully");
+    public ResponseEntity<?> checkout(
+            @RequestHeader(value = IdempotencyStore.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            Authentication authentication) {
+        return idempotencyStore.execute(authentication.getName(), "checkout", idempotencyKey, null, () -> {
+            cartService.checkout(authentication.getName());
+            return ResponseEntity.ok("Order placed successfully");
+        });
+    }
+
+    // Still conflicting after the retries in CartService
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("Cart was modified concurrently, please retry");
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<String> handleInvalidParameter(ConstraintViolationException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
     }
 }
@@ -0,0 +1,64 @@
+package com.alten.shop.controller;
+
+import com.alten.shop.dto.ProductSummary;
+import com.alten.shop.model.Product;
+
+import java.util.List;
+
+/**
+ * Strong ETags for catalog responses, derived from the rows' ids and versions or updatedAt timestamps.
+ * Controllers set them on the ResponseEntity; Spring MVC then answers a matching
+ * If-None-Match with 304 before the body is serialized. Stock changes bump both and evict
+ * the cached rows, so a client never gets a 304 for a product whose quantity moved.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    // The version moves on every write, even two within the same millisecond
+    static String forProduct(Product product) {
+        return "\"" + product.getId() + "-" + product.getVersion() + "-" + product.getUpdatedAt() + "\"";
+    }
+
+    /**
+     * Combines the row count, the max updatedAt and a hash of the id:version pairs, so that
+     * edits (even two within the same millisecond), inserts and deletes all change the tag.
+     * The variant distinguishes representations (view, page number, totals) of the same rows.
+     */
+    static String forList(List<?> items, Object... variant) {
+        long maxUpdatedAt = 0L;
+        long rowHash = 1L;
+        for (Object item : items) {
+            Long id;
+            Long version;
+            Long updatedAt;
+            switch (item) {
+                case Product product -> {
+                    id = product.getId();
+                    version = product.getVersion();
+                    updatedAt = product.getUpdatedAt();
+                }
+                case ProductSummary summary -> {
+                    id = summary.id();
+                    version = summary.version();
+                    updatedAt = summary.updatedAt();
+                }
+                default -> throw new IllegalArgumentException("Unsupported catalog item: " + item.getClass());
+            }
+            if (updatedAt != null && updatedAt > maxUpdatedAt) {
+                maxUpdatedAt = updatedAt;
+            }
+            rowHash = 31 * rowHash + (id == null ? 0 : id);
+            rowHash = 31 * rowHash + (version == null ? 0 : version);
+        }
+        StringBuilder tag = new StringBuilder("\"")
+                .append(items.size()).append('-')
+                .append(maxUpdatedAt).append('-')
+                .append(Long.toHexString(rowHash));
+        for (Object part : variant) {
+            tag.append('-').append(part);
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -0,0 +1,128 @@
+package com.alten.shop.controller;
+
+import com.alten.shop.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded TTL store of responses to requests sent with an {@code Idempotency-Key} header.
+ * The first request with a key runs the handler; retries with the same key get the recorded
+ * response back without running it again, concurrent retries wait for the first one.
+ * Only successful responses are recorded, so a failed request can be retried with the same key.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Cache<String, CompletableFuture<StoredResponse>> responses;
+    private final ObjectMapper objectMapper;
+
+    public IdempotencyStore(
+            @Value("${cart.idempotency.ttl:PT1H}") Duration ttl,
+            @Value("${cart.idempotency.max-size:10000}") long maxSize,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.responses = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .<String, CompletableFuture<StoredResponse>>build(), "idempotency.responses");
+    }
+
+    /**
+     * Runs the handler once per (user, operation, key); a blank key disables the deduplication.
+     *
+     * @param request the request payload, a retry must send the same one
+     */
+    public ResponseEntity<?> execute(String user, String operation, String key, Object request,
+                                     Supplier<ResponseEntity<?>> handler) {
+        if (key == null || key.isBlank()) {
+            return handler.get();
+        }
+
+        String cacheKey = user + '\n' + operation + '\n' + key;
+        String fingerprint = String.valueOf(request);
+        CompletableFuture<StoredResponse> pending = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> recorded = responses.asMap().putIfAbsent(cacheKey, pending);
+
+        if (recorded != null) {
+            StoredResponse stored = await(recorded);
+            if (!stored.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return stored.toResponse(true);
+        }
+
+        try {
+            StoredResponse stored = StoredResponse.of(fingerprint, handler.get(), objectMapper);
+            pending.complete(stored);
+            return stored.toResponse(false);
+        } catch (RuntimeException e) {
+            responses.invalidate(cacheKey);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void clear() {
+        responses.invalidateAll();
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> recorded) {
+        try {
+            return recorded.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record StoredResponse(String fingerprint, int status, MediaType contentType, byte[] body) {
+
+        // The body is serialized once so that replays never touch lazily loaded entities
+        static StoredResponse of(String fingerprint, ResponseEntity<?> response, ObjectMapper objectMapper) {
+            Object body = response.getBody();
+            try {
+                if (body instanceof String text) {
+                    return new StoredResponse(fingerprint, response.getStatusCode().value(),
+                            MediaType.TEXT_PLAIN, text.getBytes(StandardCharsets.UTF_8));
+                }
+                return new StoredResponse(fingerprint, response.getStatusCode().value(),
+                        MediaType.APPLICATION_JSON,
+                        body == null ? null : objectMapper.writeValueAsBytes(body));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not record idempotent response", e);
+            }
+        }
+
+        ResponseEntity<?> toResponse(boolean replayed) {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+            if (replayed) {
+                builder.header(REPLAYED_HEADER, "true");
+            }
+            if (body == null) {
+                return builder.build();
+            }
+            return builder.contentType(contentType).body(body);
+        }
+    }
+}
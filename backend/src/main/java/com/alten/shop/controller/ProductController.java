@@ -1,18 +1,29 @@
 package com.alten.shop.controller;
 
+import com.alten.shop.dto.ProductCursorPage;
+import com.alten.shop.dto.ProductSummary;
 import com.alten.shop.model.InventoryStatus;
 import com.alten.shop.model.Product;
 import com.alten.shop.service.ProductService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -21,28 +32,97 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:4200")
 public class ProductController {
 
+    private static final int DEFAULT_CURSOR_PAGE_SIZE = 20;
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+
+    // A keyset page is read into memory in one query, so it is bounded like an unpaged request
+    @Value("${product.list.default-limit:1000}")
+    private int maxCursorPageSize;
 
     @GetMapping
     public ResponseEntity<?> getAllProducts(
             @RequestParam(required = false) Integer page,
-            @RequestParam(required = false) Integer size) {
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Boolean count,
+            @RequestParam(defaultValue = "full") String view) {
 
-        if (page != null && size != null) {
+        boolean summary = isSummaryView(view);
+        if (after != null) {
+            // Keyset mode: ?after=<cursor>&size= (empty cursor starts from the beginning)
+            int pageSize = size != null ? size : DEFAULT_CURSOR_PAGE_SIZE;
+            if (pageSize < 1 || pageSize > maxCursorPageSize) {
+                return ResponseEntity.badRequest().build();
+            }
+            boolean withCount = Boolean.TRUE.equals(count);
+            try {
+                ProductCursorPage<?> products = summary
+                        ? productService.getSummariesAfter(after, pageSize, withCount)
+                        : productService.getProductsAfter(after, pageSize, withCount);
+                return ResponseEntity.ok()
+                        .eTag(ETags.forList(products.content(), view, products.totalElements()))
+                        .body(products);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        } else if (page != null && size != null) {
             Pageable pageable = PageRequest.of(page, size);
-            Page<Product> products = productService.getAllProducts(pageable);
-            return ResponseEntity.ok(products);
+            if (Boolean.FALSE.equals(count)) {
+                Slice<?> products = summary
+                        ? productService.getSummariesSlice(pageable)
+                        : productService.getProductsSlice(pageable);
+                return ResponseEntity.ok()
+                        .eTag(ETags.forList(products.getContent(), view, page, products.hasNext()))
+                        .body(products);
+            }
+            Page<?> products = summary
+                    ? productService.getSummaries(pageable)
+                    : productService.getAllProducts(pageable);
+            return ResponseEntity.ok()
+                    .eTag(ETags.forList(products.getContent(), view, page, products.getTotalElements()))
+                    .body(products);
         } else {
-            List<Product> products = productService.getAllProducts();
-            return ResponseEntity.ok(products);
+            // Unbounded request: capped at the default limit, the cursor of the rest is in a header
+            ProductCursorPage<?> products = summary
+                    ? productService.getDefaultSummaryPage()
+                    : productService.getDefaultProductPage();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(ETags.forList(products.content(), view, products.hasNext()));
+            if (products.hasNext()) {
+                response.header("X-Next-Cursor", products.nextCursor());
+            }
+            return response.body(products.content());
         }
     }
 
+    // Streaming mode: the full catalog is written to the socket chunk by chunk
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                productService.streamAllProducts(product -> {
+                    try {
+                        generator.writeObject(product);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable Long id) {
         try {
             Product product = productService.getProductById(id);
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok().eTag(ETags.forProduct(product)).body(product);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -52,22 +132,34 @@ public class ProductController {
     public ResponseEntity<Product> getProductByCode(@PathVariable String code) {
         try {
             Product product = productService.getProductByCode(code);
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok().eTag(ETags.forProduct(product)).body(product);
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<?>> getProductsByCategory(
+            @PathVariable String category,
+            @RequestParam(defaultValue = "full") String view) {
+        if (isSummaryView(view)) {
+            List<ProductSummary> products = productService.getSummariesByCategory(category);
+            return ResponseEntity.ok().eTag(ETags.forList(products, view)).body(products);
+        }
         List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(ETags.forList(products, view)).body(products);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Product>> getProductsByInventoryStatus(@PathVariable InventoryStatus status) {
+    public ResponseEntity<List<?>> getProductsByInventoryStatus(
+            @PathVariable InventoryStatus status,
+            @RequestParam(defaultValue = "full") String view) {
+        if (isSummaryView(view)) {
+            List<ProductSummary> products = productService.getSummariesByInventoryStatus(status);
+            return ResponseEntity.ok().eTag(ETags.forList(products, view)).body(products);
+        }
         List<Product> products = productService.getProductsByInventoryStatus(status);
-        return ResponseEntity.ok(products);
+        return ResponseEntity.ok().eTag(ETags.forList(products, view)).body(products);
     }
 
     @PostMapping
@@ -92,6 +184,8 @@ public class ProductController {
         try {
             Product updated = productService.updateProduct(id, product);
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -112,6 +206,10 @@ public class ProductController {
         }
     }
 
+    private boolean isSummaryView(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
+
     private boolean isAdmin(Authentication authentication) {
         return authentication != null &&
                 "hosnibey@admin.com".equals(authentication.getName());
@@ -0,0 +1,12 @@
+package com.alten.shop.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record CartBatchRequest(
+        @NotEmpty(message = "At least one operation is required")
+        @Size(max = 100, message = "At most 100 operations per batch") List<@Valid CartOperation> operations) {
+}
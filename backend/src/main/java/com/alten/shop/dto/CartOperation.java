@@ -0,0 +1,23 @@
+package com.alten.shop.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One line change in a batch: ADD uses productId and quantity, UPDATE uses itemId and quantity,
+ * REMOVE uses itemId.
+ */
+public record CartOperation(
+        @NotNull(message = "Operation type is required") Type type,
+
+        Long productId,
+
+        Long itemId,
+
+        Integer quantity) {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
@@ -0,0 +1,52 @@
+package com.alten.shop.dto;
+
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.Product;
+
+import java.util.List;
+
+/**
+ * Cart as returned by the API: only what the cart page shows, with totals computed server-side.
+ * Built from the cart items and their products, never from the owning user.
+ */
+public record CartView(
+        Long id,
+        List<Line> items,
+        Double subtotal,
+        Integer itemCount) {
+
+    public record Line(
+            Long id,
+            ProductRef product,
+            Integer quantity,
+            Double lineTotal) {
+    }
+
+    public record ProductRef(
+            Long id,
+            String name,
+            Double price,
+            String image,
+            String category) {
+    }
+
+    public static CartView from(Cart cart) {
+        List<Line> lines = cart.getItems().stream()
+                .map(CartView::line)
+                .toList();
+        double subtotal = lines.stream().mapToDouble(Line::lineTotal).sum();
+        int itemCount = lines.stream().mapToInt(Line::quantity).sum();
+        return new CartView(cart.getId(), lines, subtotal, itemCount);
+    }
+
+    private static Line line(CartItem item) {
+        Product product = item.getProduct();
+        return new Line(
+                item.getId(),
+                new ProductRef(product.getId(), product.getName(), product.getPrice(),
+                        product.getImage(), product.getCategory()),
+                item.getQuantity(),
+                product.getPrice() * item.getQuantity());
+    }
+}
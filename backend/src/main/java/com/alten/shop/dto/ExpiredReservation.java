@@ -0,0 +1,8 @@
+package com.alten.shop.dto;
+
+public record ExpiredReservation(
+        Long itemId,
+        Long productId,
+        Integer quantity,
+        Long version) {
+}
@@ -0,0 +1,12 @@
+package com.alten.shop.dto;
+
+/**
+ * Published inside the checkout transaction, handled once it has committed.
+ */
+public record OrderPlacedEvent(
+        Long orderId,
+        String userEmail,
+        Double total,
+        Integer itemCount,
+        Integer lineCount) {
+}
@@ -0,0 +1,20 @@
+package com.alten.shop.dto;
+
+import com.alten.shop.model.InventoryStatus;
+
+/**
+ * Projection of {@link com.alten.shop.model.Product} with only the fields rendered by list views,
+ * plus version and updatedAt so list responses can carry an ETag.
+ */
+public record ProductSummary(
+        Long id,
+        String code,
+        String name,
+        String image,
+        String category,
+        Double price,
+        InventoryStatus inventoryStatus,
+        Double rating,
+        Long version,
+        Long updatedAt) {
+}
@@ -12,7 +12,11 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = { "cart_id", "product_id" })
+}, indexes = {
+        @Index(name = "idx_cart_items_reserved_until", columnList = "reserved_until")
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -20,7 +24,8 @@ import java.time.LocalDateTime;
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_items_seq")
+    @SequenceGenerator(name = "cart_items_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -38,6 +43,13 @@ public class CartItem {
     @Column(nullable = false)
     private Integer quantity;
 
+    // Stock for this line is held until this time; null once the sweeper returned it
+    @Column(name = "reserved_until")
+    private LocalDateTime reservedUntil;
+
+    @Version
+    private Long version;
+
     @Column(name = "added_at", nullable = false, updatable = false)
     private LocalDateTime addedAt;
 
@@ -45,4 +57,8 @@ public class CartItem {
     protected void onCreate() {
         addedAt = LocalDateTime.now();
     }
+
+    public boolean holdsStock() {
+        return reservedUntil != null;
+    }
 }
@@ -0,0 +1,6 @@
+package com.alten.shop.model;
+
+public enum OrderStatus {
+    PLACED,
+    CONFIRMED
+}
@@ -5,14 +5,18 @@ import jakarta.validation.constraints.*;
 import lombok.*;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_category", columnList = "category"),
+        @Index(name = "idx_products_inventory_status", columnList = "inventoryStatus")
+})
 @Data
 @AllArgsConstructor
 @Builder
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Code is required")
@@ -53,6 +57,9 @@ public class Product {
     @DecimalMax(value = "5.0", inclusive = true, message = "Rating must be between 0 and 5")
     private Double rating;
 
+    @Version
+    private Long version;
+
     @Column(nullable = false, updatable = false)
     private Long createdAt;
 
@@ -1,5 +1,6 @@
 package com.alten.shop.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -19,7 +20,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username cannot be blank")
@@ -37,6 +39,7 @@ public class User {
 
     @NotBlank(message = "Password cannot be blank")
     @Column(nullable = false)
+    @JsonIgnore
     private String password;
 
     @Column(name = "created_at", nullable = false, updatable = false)
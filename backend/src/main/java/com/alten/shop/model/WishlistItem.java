@@ -10,7 +10,9 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wishlist_items")
+@Table(name = "wishlist_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wishlist_items_wishlist_product", columnNames = { "wishlist_id", "product_id" })
+})
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,7 +20,8 @@ import java.time.LocalDateTime;
 public class WishlistItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wishlist_items_seq")
+    @SequenceGenerator(name = "wishlist_items_seq", sequenceName = "wishlist_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
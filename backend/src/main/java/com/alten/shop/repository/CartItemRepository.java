@@ -1,9 +1,16 @@
 package com.alten.shop.repository;
 
+import com.alten.shop.dto.ExpiredReservation;
 import com.alten.shop.model.CartItem;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,5 +18,14 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
 
-    void deleteByCartId(Long cartId);
+    // Range scan on idx_cart_items_reserved_until, oldest first
+    @Query("SELECT new com.alten.shop.dto.ExpiredReservation(i.id, i.product.id, i.quantity, i.version) "
+            + "FROM CartItem i WHERE i.reservedUntil < :now ORDER BY i.reservedUntil")
+    List<ExpiredReservation> findExpiredReservations(@Param("now") LocalDateTime now, Limit limit);
+
+    // Releases only a line that is unchanged since it was read and still expired: 1 when released, 0 otherwise
+    @Modifying
+    @Query("UPDATE CartItem i SET i.reservedUntil = null, i.version = i.version + 1 "
+            + "WHERE i.id = :id AND i.version = :version AND i.reservedUntil < :now")
+    int releaseReservation(@Param("id") Long id, @Param("version") Long version, @Param("now") LocalDateTime now);
 }
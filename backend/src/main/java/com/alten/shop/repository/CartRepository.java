@@ -1,6 +1,7 @@
 package com.alten.shop.repository;
 
 import com.alten.shop.model.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +12,9 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUserId(Long userId);
 
+    // One query for the cart, its owner, its items and their products
+    @EntityGraph(attributePaths = { "user", "items", "items.product" })
+    Optional<Cart> findWithItemsByUserId(Long userId);
+
     boolean existsByUserId(Long userId);
 }
@@ -0,0 +1,22 @@
+package com.alten.shop.repository;
+
+import com.alten.shop.model.Order;
+import com.alten.shop.model.OrderStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    List<Order> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.confirmedAt = :now WHERE o.id = :id AND o.status <> :status")
+    int markStatus(@Param("id") Long id, @Param("status") OrderStatus status, @Param("now") LocalDateTime now);
+}
@@ -1,17 +1,23 @@
 package com.alten.shop.repository;
 
+import com.alten.shop.dto.ProductSummary;
 import com.alten.shop.model.InventoryStatus;
 import com.alten.shop.model.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
 
     Optional<Product> findByCode(String code);
 
@@ -20,4 +26,32 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByInventoryStatus(InventoryStatus inventoryStatus);
 
     Page<Product> findAll(Pageable pageable);
+
+    // Offset paging without the count(*) query
+    Slice<Product> findAllBy(Pageable pageable);
+
+    // Keyset (seek) paging on the primary key index
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Summary projections: select only the list-view columns, no entity hydration
+    Page<ProductSummary> findSummariesBy(Pageable pageable);
+
+    Slice<ProductSummary> findSummarySliceBy(Pageable pageable);
+
+    List<ProductSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<ProductSummary> findSummariesByCategory(String category);
+
+    List<ProductSummary> findSummariesByInventoryStatus(InventoryStatus inventoryStatus);
+
+    // Atomic stock reservation: returns 1 when the stock was taken, 0 when it was insufficient
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity - :quantity, p.updatedAt = :now, "
+            + "p.version = p.version + 1 WHERE p.id = :id AND p.quantity >= :quantity")
+    int decrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") long now);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.quantity = p.quantity + :quantity, p.updatedAt = :now, "
+            + "p.version = p.version + 1 WHERE p.id = :id")
+    int incrementQuantity(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") long now);
 }
@@ -0,0 +1,18 @@
+package com.alten.shop.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Stock changes for several products sent to the database as one JDBC batch.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Applies the quantity deltas (negative takes stock, positive gives it back).
+     * A product whose stock would go below zero is left unchanged.
+     *
+     * @return the ids of the products that could not be updated
+     */
+    Set<Long> adjustQuantities(Map<Long, Integer> deltas, long now);
+}
@@ -0,0 +1,40 @@
+package com.alten.shop.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+@RequiredArgsConstructor
+class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    // Same guard as ProductRepository.decrementQuantity: a row is only updated if enough stock is left
+    private static final String ADJUST_QUANTITY = "UPDATE products SET quantity = quantity + ?, "
+            + "updated_at = ?, version = version + 1 WHERE id = ? AND quantity + ? >= 0";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> adjustQuantities(Map<Long, Integer> deltas, long now) {
+        // Ordered by id so that concurrent batches lock rows in the same order
+        List<Long> ids = new ArrayList<>(new TreeMap<>(deltas).keySet());
+        List<Object[]> args = ids.stream()
+                .map(id -> new Object[] { deltas.get(id), now, id, deltas.get(id) })
+                .toList();
+
+        int[] updated = jdbcTemplate.batchUpdate(ADJUST_QUANTITY, args);
+
+        Set<Long> rejected = new LinkedHashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                rejected.add(ids.get(i));
+            }
+        }
+        return rejected;
+    }
+}
@@ -1,6 +1,7 @@
 package com.alten.shop.repository;
 
 import com.alten.shop.model.Wishlist;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,5 +12,9 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
     Optional<Wishlist> findByUserId(Long userId);
 
+    // One query for the wishlist, its owner, its items and their products
+    @EntityGraph(attributePaths = { "user", "items", "items.product" })
+    Optional<Wishlist> findWithItemsByUserId(Long userId);
+
     boolean existsByUserId(Long userId);
 }
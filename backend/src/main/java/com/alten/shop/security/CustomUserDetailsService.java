@@ -1,28 +1,82 @@
 package com.alten.shop.security;
 
 import com.alten.shop.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+/**
+ * Loads users by email through a bounded TTL cache, so authenticated requests
+ * do not hit the database every time. Call {@link #evict(String)} when a user changes.
+ * The database lookup runs outside the cache's map lock (see {@code ProductCache}).
+ */
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Holds plain values: Spring Security erases credentials on the UserDetails it hands out
+    private final AsyncCache<String, Credentials> users;
+
+    public CustomUserDetailsService(
+            UserRepository userRepository,
+            @Value("${jwt.user-cache.ttl:PT5M}") Duration ttl,
+            @Value("${jwt.user-cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.users = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .<String, Credentials>buildAsync(), "users.byEmail");
+    }
+
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        var user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
+        CompletableFuture<Credentials> pending = new CompletableFuture<>();
+        CompletableFuture<Credentials> cached = users.get(email, (key, executor) -> pending);
+        if (cached == pending) {
+            try {
+                pending.complete(userRepository.findByEmail(email)
+                        .map(user -> new Credentials(user.getId(), user.getEmail(), user.getPassword()))
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email)));
+            } catch (RuntimeException e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        Credentials credentials;
+        try {
+            credentials = cached.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
+        return new AuthenticatedUser(
+                credentials.id(),
+                credentials.email(),
+                credentials.password(),
                 new ArrayList<>());
     }
+
+    public void evict(String email) {
+        users.synchronous().invalidate(email);
+    }
+
+    private record Credentials(Long id, String email, String password) {
+    }
 }
@@ -1,13 +1,26 @@
 package com.alten.shop.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -16,14 +29,73 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
+    private static final long VERIFIED_TOKENS_MAX_SIZE = 10_000;
+    static final String USER_ID_CLAIM = "uid";
+
     @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
     private String secretKey;
 
     @Value("${jwt.expiration:86400000}") // 24 hours in milliseconds
     private long jwtExpiration;
 
+    // Derived once from the secret; JwtParser is immutable and safe to share between threads
+    private SecretKey signInKey;
+    private JwtParser parser;
+
+    // Token hash -> verified subject/expiry; each entry is evicted when its token expires
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(VERIFIED_TOKENS_MAX_SIZE)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String hash, VerifiedToken verified, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), verified.expiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String hash, VerifiedToken verified, long currentTime,
+                                              long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String hash, VerifiedToken verified, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        parser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
+    /**
+     * Checks the signature and expiry of the token, parsing it at most once while it stays cached.
+     *
+     * @throws JwtException if the token is malformed, wrongly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        String hash = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(hash);
+        if (verified == null) {
+            Claims claims = extractAllClaims(token);
+            verified = new VerifiedToken(claims.getSubject(), claims.get(USER_ID_CLAIM, Long.class),
+                    claims.getExpiration().toInstant());
+            verifiedTokens.put(hash, verified);
+        }
+        if (verified.isExpired(Instant.now())) {
+            verifiedTokens.invalidate(hash);
+            throw new ExpiredJwtException(null, null, "JWT expired at " + verified.expiresAt());
+        }
+        return verified;
+    }
+
     public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -35,6 +107,10 @@ public class JwtService {
         return generateToken(new HashMap<>(), email);
     }
 
+    public String generateToken(String email, Long userId) {
+        return generateToken(Map.of(USER_ID_CLAIM, userId), email);
+    }
+
     public String generateToken(Map<String, Object> extraClaims, String email) {
         return buildToken(extraClaims, email, jwtExpiration);
     }
@@ -49,34 +125,26 @@ public class JwtService {
                 .subject(email)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email)) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        return verify(token).subject().equals(email);
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return parser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
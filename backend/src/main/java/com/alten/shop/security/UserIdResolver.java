@@ -0,0 +1,30 @@
+package com.alten.shop.security;
+
+import com.alten.shop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the id of a user from the current request's principal when it carries one,
+ * falling back to an id-only query (other principals, background callers).
+ */
+@Component
+@RequiredArgsConstructor
+public class UserIdResolver {
+
+    private final UserRepository userRepository;
+
+    public Long resolve(String email) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.getPrincipal() instanceof AuthenticatedUser user
+                && user.getId() != null
+                && user.getUsername().equals(email)) {
+            return user.getId();
+        }
+        return userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,14 @@
+package com.alten.shop.security;
+
+import java.time.Instant;
+
+/**
+ * What the application needs from a JWT whose signature and expiry have been checked.
+ * The user id is null for tokens issued without the {@code uid} claim.
+ */
+public record VerifiedToken(String subject, Long userId, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
@@ -5,6 +5,7 @@ import com.alten.shop.dto.LoginRequest;
 import com.alten.shop.dto.RegisterRequest;
 import com.alten.shop.model.User;
 import com.alten.shop.repository.UserRepository;
+import com.alten.shop.security.CustomUserDetailsService;
 import com.alten.shop.security.JwtService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -17,6 +18,7 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final CustomUserDetailsService userDetailsService;
 
     public AuthResponse register(RegisterRequest request) {
         // Check if email already exists
@@ -33,9 +35,10 @@ public class AuthService {
                 .build();
 
         userRepository.save(user);
+        userDetailsService.evict(user.getEmail());
 
         // Generate JWT token
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user.getEmail(), user.getId());
 
         return new AuthResponse(
                 token,
@@ -54,7 +57,7 @@ public class AuthService {
         }
 
         // Generate JWT token
-        String token = jwtService.generateToken(user.getEmail());
+        String token = jwtService.generateToken(user.getEmail(), user.getId());
 
         return new AuthResponse(
                 token,
@@ -1,18 +1,41 @@
 package com.alten.shop.service;
 
 import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.dto.CartOperation;
+import com.alten.shop.dto.ExpiredReservation;
+import com.alten.shop.dto.OrderPlacedEvent;
+import com.alten.shop.exception.InsufficientStockException;
 import com.alten.shop.model.Cart;
 import com.alten.shop.model.CartItem;
+import com.alten.shop.model.Order;
+import com.alten.shop.model.OrderLine;
+import com.alten.shop.model.OrderStatus;
 import com.alten.shop.model.Product;
 import com.alten.shop.model.User;
 import com.alten.shop.repository.CartItemRepository;
 import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.OrderRepository;
 import com.alten.shop.repository.ProductRepository;
 import com.alten.shop.repository.UserRepository;
+import com.alten.shop.security.UserIdResolver;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class CartService {
@@ -21,13 +44,21 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserIdResolver userIdResolver;
+    private final ProductCache productCache;
+
+    @Value("${cart.reservation.ttl:PT15M}")
+    private Duration reservationTtl;
 
     public Cart getOrCreateCart(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = userIdResolver.resolve(userEmail);
 
-        return cartRepository.findByUserId(user.getId())
+        return cartRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> {
+                    User user = userRepository.findById(userId)
+                            .orElseThrow(() -> new RuntimeException("User not found"));
                     Cart cart = Cart.builder()
                             .user(user)
                             .build();
@@ -35,11 +66,16 @@ public class CartService {
                 });
     }
 
+    @RetryOnConflict
     @Transactional
     public Cart addToCart(String userEmail, AddToCartRequest request) {
+        // Reserve stock first, before the product is loaded into the persistence context
+        reserveStock(request.productId(), request.quantity());
+
         Cart cart = getOrCreateCart(userEmail);
         Product product = productRepository.findById(request.productId())
                 .orElseThrow(() -> new RuntimeException("Product not found"));
+        productCache.evict(product);
 
         // Check if item already exists in cart
         var existingItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), product.getId());
@@ -47,27 +83,122 @@ public class CartService {
         if (existingItem.isPresent()) {
             // Update quantity
             CartItem item = existingItem.get();
+            if (!item.holdsStock()) {
+                // The previous reservation expired and was returned to stock, take it again
+                reserveStock(product.getId(), item.getQuantity());
+            }
             item.setQuantity(item.getQuantity() + request.quantity());
+            item.setReservedUntil(nextExpiry());
         } else {
             // Add new item
             CartItem newItem = CartItem.builder()
                     .cart(cart)
                     .product(product)
                     .quantity(request.quantity())
+                    .reservedUntil(nextExpiry())
                     .build();
             cart.addItem(newItem);
             cartItemRepository.save(newItem);
         }
 
-        // Deduct quantity from product inventory
-        product.setQuantity(Math.max(0, product.getQuantity() - request.quantity()));
-        productRepository.save(product);
+        return cartRepository.save(cart);
+    }
+
+    /**
+     * Applies the operations in order, all or nothing. The resulting quantity of each touched line
+     * is worked out first; then products are loaded with one findAllById and the stock difference
+     * of every product is applied in one batched update.
+     */
+    @RetryOnConflict
+    @Transactional
+    public Cart applyOperations(String userEmail, List<CartOperation> operations) {
+        Cart cart = getOrCreateCart(userEmail);
+        Map<Long, CartItem> itemsById = cart.getItems().stream()
+                .collect(Collectors.toMap(CartItem::getId, Function.identity()));
+        Map<Long, CartItem> itemsByProduct = cart.getItems().stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+
+        // Product id -> resulting quantity of its line, 0 when removed
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (CartOperation operation : operations) {
+            switch (operation.type()) {
+                case ADD -> {
+                    requirePositive(operation.quantity());
+                    if (operation.productId() == null) {
+                        throw new RuntimeException("Product ID is required");
+                    }
+                    int current = quantities.computeIfAbsent(operation.productId(), productId ->
+                            itemsByProduct.containsKey(productId) ? itemsByProduct.get(productId).getQuantity() : 0);
+                    quantities.put(operation.productId(), current + operation.quantity());
+                }
+                case UPDATE -> {
+                    requirePositive(operation.quantity());
+                    quantities.put(ownItem(itemsById, operation.itemId()).getProduct().getId(), operation.quantity());
+                }
+                case REMOVE -> quantities.put(ownItem(itemsById, operation.itemId()).getProduct().getId(), 0);
+            }
+        }
+
+        List<Long> newProductIds = quantities.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0 && !itemsByProduct.containsKey(entry.getKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, Product> newProducts = productRepository.findAllById(newProductIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (newProducts.size() != newProductIds.size()) {
+            throw new RuntimeException("Product not found");
+        }
+
+        // Stock to give back (positive) or take (negative), against what each line holds now
+        Map<Long, Integer> stockDeltas = new HashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            CartItem item = itemsByProduct.get(productId);
+            int held = item != null && item.holdsStock() ? item.getQuantity() : 0;
+            if (held != quantity) {
+                stockDeltas.put(productId, held - quantity);
+            }
+        });
+        if (!stockDeltas.isEmpty()) {
+            Set<Long> rejected = productRepository.adjustQuantities(stockDeltas, System.currentTimeMillis());
+            if (!rejected.isEmpty()) {
+                Long productId = rejected.iterator().next();
+                throw new InsufficientStockException(productId, -stockDeltas.get(productId));
+            }
+            stockDeltas.keySet().forEach(productId -> productCache.evict(itemsByProduct.containsKey(productId)
+                    ? itemsByProduct.get(productId).getProduct() : newProducts.get(productId)));
+        }
+
+        LocalDateTime reservedUntil = nextExpiry();
+        quantities.forEach((productId, quantity) -> {
+            CartItem item = itemsByProduct.get(productId);
+            if (quantity == 0) {
+                if (item != null) {
+                    cart.removeItem(item);
+                    cartItemRepository.delete(item);
+                }
+            } else if (item == null) {
+                CartItem newItem = CartItem.builder()
+                        .cart(cart)
+                        .product(newProducts.get(productId))
+                        .quantity(quantity)
+                        .reservedUntil(reservedUntil)
+                        .build();
+                cart.addItem(newItem);
+                cartItemRepository.save(newItem);
+            } else {
+                item.setQuantity(quantity);
+                item.setReservedUntil(reservedUntil);
+            }
+        });
 
         return cartRepository.save(cart);
     }
 
+    @RetryOnConflict
     @Transactional
     public Cart updateCartItemQuantity(String userEmail, Long itemId, Integer newQuantity) {
+        // Removing a line goes through removeFromCart, so only positive quantities are valid here
+        requirePositive(newQuantity);
         Cart cart = getOrCreateCart(userEmail);
         CartItem item = cartItemRepository.findById(itemId)
                 .orElseThrow(() -> new RuntimeException("Cart item not found"));
@@ -76,19 +207,24 @@ public class CartService {
             throw new RuntimeException("Cart item does not belong to user");
         }
 
-        // Calculate the difference to adjust product quantity
-        int quantityDifference = item.getQuantity() - newQuantity;
+        // Reserve or release only the difference, or the whole line if its reservation expired
+        int quantityDifference = item.holdsStock() ? newQuantity - item.getQuantity() : newQuantity;
+        if (quantityDifference > 0) {
+            reserveStock(item.getProduct().getId(), quantityDifference);
+        } else if (quantityDifference < 0) {
+            releaseStock(item.getProduct().getId(), -quantityDifference);
+        }
         if (quantityDifference != 0) {
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() + quantityDifference);
-            productRepository.save(product);
+            productCache.evict(item.getProduct());
         }
 
         item.setQuantity(newQuantity);
+        item.setReservedUntil(nextExpiry());
         cartItemRepository.save(item);
         return cart;
     }
 
+    @RetryOnConflict
     @Transactional
     public Cart removeFromCart(String userEmail, Long itemId) {
         Cart cart = getOrCreateCart(userEmail);
@@ -100,37 +236,158 @@ public class CartService {
         }
 
         // Restore product quantity
-        Product product = item.getProduct();
-        product.setQuantity(product.getQuantity() + item.getQuantity());
-        productRepository.save(product);
+        if (item.holdsStock()) {
+            releaseStock(item.getProduct().getId(), item.getQuantity());
+            productCache.evict(item.getProduct());
+        }
 
         cart.removeItem(item);
         cartItemRepository.delete(item);
         return cartRepository.save(cart);
     }
 
+    @RetryOnConflict
     @Transactional
     public void clearCart(String userEmail) {
         Cart cart = getOrCreateCart(userEmail);
-        cartItemRepository.deleteByCartId(cart.getId());
-        cart.getItems().clear();
+        List<CartItem> items = List.copyOf(cart.getItems());
+        // Lines are deleted first: stock only goes back for lines no one released since they were read
+        deleteLines(cart);
+        releaseHeldStock(items);
         cartRepository.save(cart);
     }
 
+    /**
+     * Turns the cart into an order in one short transaction: reserved stock is consumed as is,
+     * lines whose reservation expired are reserved again, prices are copied into the order lines.
+     * Lines are deleted against the version that was read, so a reservation the sweeper returned
+     * meanwhile makes the checkout retry and reserve it again rather than consume it twice.
+     * Confirmation and statistics are left to {@link OrderPostProcessor} after commit.
+     */
+    @RetryOnConflict
     @Transactional
-    public void checkout(String userEmail) {
+    public Order checkout(String userEmail) {
         Cart cart = getOrCreateCart(userEmail);
 
         if (cart.getItems().isEmpty()) {
             throw new RuntimeException("Cannot checkout with an empty cart");
         }
 
-        // In a real application, you would create an order here
-        // For now, we just clear the cart since the inventory has already been updated
-        // when items were added to the cart
+        Order order = Order.builder()
+                .user(cart.getUser())
+                .status(OrderStatus.PLACED)
+                .build();
+        double total = 0;
+        int itemCount = 0;
+        for (CartItem item : cart.getItems()) {
+            Product product = item.getProduct();
+            if (!item.holdsStock()) {
+                reserveStock(product.getId(), item.getQuantity());
+                productCache.evict(product);
+            }
+            double lineTotal = product.getPrice() * item.getQuantity();
+            order.addLine(OrderLine.builder()
+                    .productId(product.getId())
+                    .productCode(product.getCode())
+                    .productName(product.getName())
+                    .unitPrice(product.getPrice())
+                    .quantity(item.getQuantity())
+                    .lineTotal(lineTotal)
+                    .build());
+            total += lineTotal;
+            itemCount += item.getQuantity();
+        }
+        order.setTotal(total);
+        order.setItemCount(itemCount);
+
+        // Lines cascade from the order and are inserted as one JDBC batch
+        Order saved = orderRepository.save(order);
 
-        cartItemRepository.deleteByCartId(cart.getId());
-        cart.getItems().clear();
+        deleteLines(cart);
         cartRepository.save(cart);
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(
+                saved.getId(), userEmail, total, itemCount, saved.getLines().size()));
+        return saved;
+    }
+
+    /**
+     * Returns the stock of up to batchSize expired reservations and marks them released.
+     * Stock is given back with one increment per product, and only for the lines the conditional
+     * update actually released: lines changed, checked out or cleared concurrently fail the version
+     * check and are left alone.
+     *
+     * @return the number of reservations released
+     */
+    @Transactional
+    public int releaseExpiredReservations(LocalDateTime now, int batchSize) {
+        List<ExpiredReservation> expired = cartItemRepository.findExpiredReservations(now, Limit.of(batchSize));
+        Map<Long, Integer> releasedByProduct = new HashMap<>();
+        int released = 0;
+        for (ExpiredReservation reservation : expired) {
+            if (cartItemRepository.releaseReservation(reservation.itemId(), reservation.version(), now) == 1) {
+                releasedByProduct.merge(reservation.productId(), reservation.quantity(), Integer::sum);
+                released++;
+            }
+        }
+        releasedByProduct.forEach(this::releaseStock);
+        productRepository.findAllById(releasedByProduct.keySet()).forEach(productCache::evict);
+        return released;
+    }
+
+    private static void requirePositive(Integer quantity) {
+        if (quantity == null || quantity < 1) {
+            throw new RuntimeException("Quantity must be at least 1");
+        }
+    }
+
+    private static CartItem ownItem(Map<Long, CartItem> itemsById, Long itemId) {
+        CartItem item = itemsById.get(itemId);
+        if (item == null) {
+            throw new RuntimeException("Cart item not found");
+        }
+        return item;
+    }
+
+    private LocalDateTime nextExpiry() {
+        return LocalDateTime.now().plus(reservationTtl);
+    }
+
+    private void releaseHeldStock(Collection<CartItem> items) {
+        Map<Long, Integer> heldByProduct = new HashMap<>();
+        for (CartItem item : items) {
+            if (item.holdsStock()) {
+                heldByProduct.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum);
+                productCache.evict(item.getProduct());
+            }
+        }
+        heldByProduct.forEach(this::releaseStock);
+    }
+
+    /**
+     * Deletes every line by id and version and flushes right away. A line changed since the cart was
+     * read, typically released by the sweeper, fails with an optimistic lock conflict, so the caller
+     * rolls back and is retried instead of consuming stock that was already given back.
+     */
+    private void deleteLines(Cart cart) {
+        cartItemRepository.deleteAll(List.copyOf(cart.getItems()));
+        cartItemRepository.flush();
+        cart.getItems().clear();
+    }
+
+    /**
+     * Takes stock with a single conditional UPDATE, so concurrent carts can never oversell.
+     */
+    private void reserveStock(Long productId, int quantity) {
+        if (productRepository.decrementQuantity(productId, quantity, System.currentTimeMillis()) == 0) {
+            if (!productRepository.existsById(productId)) {
+                throw new RuntimeException("Product not found");
+            }
+            throw new InsufficientStockException(productId, quantity);
+        }
+    }
+
+    private void releaseStock(Long productId, int quantity) {
+        productRepository.incrementQuantity(productId, quantity, System.currentTimeMillis());
     }
 }
@@ -0,0 +1,45 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.OrderPlacedEvent;
+import com.alten.shop.model.OrderStatus;
+import com.alten.shop.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Work that follows a checkout but must not add to its latency:
+ * confirming the order and recording sales statistics.
+ * Runs on the task executor after the checkout transaction has committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderPostProcessor {
+
+    private final OrderRepository orderRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (orderRepository.markStatus(event.orderId(), OrderStatus.CONFIRMED, LocalDateTime.now()) == 0) {
+            log.warn("Order {} was not found or already confirmed", event.orderId());
+            return;
+        }
+
+        meterRegistry.counter("orders.placed").increment();
+        meterRegistry.summary("orders.amount").record(event.total());
+        meterRegistry.summary("orders.items").record(event.itemCount());
+        log.info("Order {} confirmed for {} ({} lines, total {})",
+                event.orderId(), event.userEmail(), event.lineCount(), event.total());
+    }
+}
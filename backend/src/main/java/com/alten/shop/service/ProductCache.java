@@ -0,0 +1,173 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.ProductSummary;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache for the product catalog.
+ * Entries expire after a fixed TTL and are evicted by size; writes evict the affected keys,
+ * stock changes included since cached products carry their quantity.
+ * Hit/miss/eviction counters are published as {@code cache.*} metrics tagged with the cache name.
+ * <p>
+ * A miss only installs a pending future under the cache's map lock; the loader then runs on the
+ * calling thread, so a load blocked on JDBC never pins the carrier of a virtual thread.
+ * Concurrent misses on the same key wait for that single load.
+ */
+@Component
+public class ProductCache {
+
+    private final AsyncCache<Long, Product> byId;
+    private final AsyncCache<String, Product> byCode;
+    private final AsyncCache<String, List<Product>> byCategory;
+    private final AsyncCache<InventoryStatus, List<Product>> byStatus;
+    private final AsyncCache<String, List<ProductSummary>> summariesByCategory;
+    private final AsyncCache<InventoryStatus, List<ProductSummary>> summariesByStatus;
+
+    public ProductCache(
+            @Value("${product.cache.ttl:PT5M}") Duration ttl,
+            @Value("${product.cache.max-size:10000}") long maxSize,
+            MeterRegistry meterRegistry) {
+        this.byId = register(meterRegistry, "products.byId", build(ttl, maxSize));
+        this.byCode = register(meterRegistry, "products.byCode", build(ttl, maxSize));
+        this.byCategory = register(meterRegistry, "products.byCategory", build(ttl, maxSize));
+        this.byStatus = register(meterRegistry, "products.byStatus", build(ttl, maxSize));
+        this.summariesByCategory = register(meterRegistry, "productSummaries.byCategory", build(ttl, maxSize));
+        this.summariesByStatus = register(meterRegistry, "productSummaries.byStatus", build(ttl, maxSize));
+    }
+
+    public Product getById(Long id, Function<Long, Product> loader) {
+        return getOrLoad(byId, id, loader);
+    }
+
+    public Product getByCode(String code, Function<String, Product> loader) {
+        return getOrLoad(byCode, code, loader);
+    }
+
+    public List<Product> getByCategory(String category, Function<String, List<Product>> loader) {
+        return category == null ? loader.apply(null) : getOrLoad(byCategory, category, loader);
+    }
+
+    public List<Product> getByStatus(InventoryStatus status, Function<InventoryStatus, List<Product>> loader) {
+        return status == null ? loader.apply(null) : getOrLoad(byStatus, status, loader);
+    }
+
+    public List<ProductSummary> getSummariesByCategory(
+            String category, Function<String, List<ProductSummary>> loader) {
+        return category == null ? loader.apply(null) : getOrLoad(summariesByCategory, category, loader);
+    }
+
+    public List<ProductSummary> getSummariesByStatus(
+            InventoryStatus status, Function<InventoryStatus, List<ProductSummary>> loader) {
+        return status == null ? loader.apply(null) : getOrLoad(summariesByStatus, status, loader);
+    }
+
+    /**
+     * Evicts every key under which the given product state may be cached. Inside a transaction the
+     * keys are evicted again once it completes, so a state reloaded before the commit is not kept.
+     */
+    public void evict(Product product) {
+        if (product == null) {
+            return;
+        }
+        Keys keys = new Keys(product.getId(), product.getCode(), product.getCategory(), product.getInventoryStatus());
+        invalidate(keys);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(keys);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        byId.synchronous().invalidateAll();
+        byCode.synchronous().invalidateAll();
+        byCategory.synchronous().invalidateAll();
+        byStatus.synchronous().invalidateAll();
+        summariesByCategory.synchronous().invalidateAll();
+        summariesByStatus.synchronous().invalidateAll();
+    }
+
+    public Map<String, CacheStats> stats() {
+        return Map.of(
+                "products.byId", byId.synchronous().stats(),
+                "products.byCode", byCode.synchronous().stats(),
+                "products.byCategory", byCategory.synchronous().stats(),
+                "products.byStatus", byStatus.synchronous().stats(),
+                "productSummaries.byCategory", summariesByCategory.synchronous().stats(),
+                "productSummaries.byStatus", summariesByStatus.synchronous().stats());
+    }
+
+    private void invalidate(Keys keys) {
+        if (keys.id() != null) {
+            byId.synchronous().invalidate(keys.id());
+        }
+        if (keys.code() != null) {
+            byCode.synchronous().invalidate(keys.code());
+        }
+        if (keys.category() != null) {
+            byCategory.synchronous().invalidate(keys.category());
+            summariesByCategory.synchronous().invalidate(keys.category());
+        }
+        if (keys.status() != null) {
+            byStatus.synchronous().invalidate(keys.status());
+            summariesByStatus.synchronous().invalidate(keys.status());
+        }
+    }
+
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> value = cache.get(key, (k, executor) -> pending);
+        if (value == pending) {
+            try {
+                pending.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static <K, V> AsyncCache<K, V> build(Duration ttl, long maxSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .buildAsync();
+    }
+
+    private static <K, V> AsyncCache<K, V> register(MeterRegistry meterRegistry, String name, AsyncCache<K, V> cache) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    // Taken when evict is called: the entity may be changed before the transaction completes
+    private record Keys(Long id, String code, String category, InventoryStatus status) {
+    }
+}
@@ -1,15 +1,28 @@
 package com.alten.shop.service;
 
+import com.alten.shop.dto.ProductCursorPage;
+import com.alten.shop.dto.ProductSummary;
 import com.alten.shop.model.InventoryStatus;
 import com.alten.shop.model.Product;
 import com.alten.shop.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -17,31 +30,153 @@ import java.util.List;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final EntityManager entityManager;
+
+    @Value("${product.list.default-limit:1000}")
+    private int defaultListLimit;
+
+    @Value("${product.stream.fetch-size:500}")
+    private int streamFetchSize;
 
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
+    /**
+     * First page of the catalog for requests that do not ask for a page,
+     * capped at product.list.default-limit.
+     */
+    public ProductCursorPage<Product> getDefaultProductPage() {
+        return getProductsAfter(null, defaultListLimit, false);
+    }
+
+    /**
+     * Pushes the whole catalog to the consumer in keyset chunks of product.stream.fetch-size.
+     * Runs outside a surrounding transaction, and the persistence context is cleared after
+     * each chunk: with open-in-view the request's EntityManager is still bound to the
+     * streaming thread, and would otherwise keep every product read.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamAllProducts(Consumer<Product> consumer) {
+        long afterId = 0L;
+        List<Product> chunk;
+        do {
+            chunk = productRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(streamFetchSize));
+            chunk.forEach(consumer);
+            entityManager.clear();
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == streamFetchSize);
+    }
+
     public Page<Product> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
 
+    public Slice<Product> getProductsSlice(Pageable pageable) {
+        return productRepository.findAllBy(pageable);
+    }
+
+    public ProductCursorPage<Product> getProductsAfter(String cursor, int size, boolean withCount) {
+        return seek(cursor, size, withCount, productRepository::findByIdGreaterThanOrderByIdAsc, Product::getId);
+    }
+
+    public ProductCursorPage<ProductSummary> getDefaultSummaryPage() {
+        return getSummariesAfter(null, defaultListLimit, false);
+    }
+
+    public Page<ProductSummary> getSummaries(Pageable pageable) {
+        return productRepository.findSummariesBy(pageable);
+    }
+
+    public Slice<ProductSummary> getSummariesSlice(Pageable pageable) {
+        return productRepository.findSummarySliceBy(pageable);
+    }
+
+    public ProductCursorPage<ProductSummary> getSummariesAfter(String cursor, int size, boolean withCount) {
+        return seek(cursor, size, withCount, productRepository::findSummariesByIdGreaterThanOrderByIdAsc,
+                ProductSummary::id);
+    }
+
+    public List<ProductSummary> getSummariesByCategory(String category) {
+        return productCache.getSummariesByCategory(category,
+                key -> List.copyOf(productRepository.findSummariesByCategory(key)));
+    }
+
+    public List<ProductSummary> getSummariesByInventoryStatus(InventoryStatus status) {
+        return productCache.getSummariesByStatus(status,
+                key -> List.copyOf(productRepository.findSummariesByInventoryStatus(key)));
+    }
+
+    private <T> ProductCursorPage<T> seek(
+            String cursor,
+            int size,
+            boolean withCount,
+            BiFunction<Long, Limit, List<T>> finder,
+            Function<T, Long> idOf) {
+        long afterId = decodeCursor(cursor);
+        // Fetch one extra row to know whether another page follows
+        List<T> rows = finder.apply(afterId, Limit.of(size + 1));
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(idOf.apply(content.get(content.size() - 1))) : null;
+        Long total = withCount ? productRepository.count() : null;
+        return new ProductCursorPage<>(content, nextCursor, hasNext, total);
+    }
+
+    static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith("id:")) {
+                return Long.parseLong(decoded.substring(3));
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed Base64 or id, reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        Product product = productCache.getById(id, key -> productRepository.findById(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with id: " + id);
+        }
+        return product;
     }
 
     public Product getProductByCode(String code) {
-        return productRepository.findByCode(code)
-                .orElseThrow(() -> new RuntimeException("Product not found with code: " + code));
+        Product product = productCache.getByCode(code, key -> productRepository.findByCode(key).orElse(null));
+        if (product == null) {
+            throw new RuntimeException("Product not found with code: " + code);
+        }
+        return product;
     }
 
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.evict(saved);
+        return saved;
     }
 
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        // Load from the database, never mutate a cached instance
+        Product product = findProduct(id);
+        // A client that sends the version it read must not overwrite a newer state
+        if (productDetails.getVersion() != null && !productDetails.getVersion().equals(product.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Product.class, id);
+        }
+        // Evict the keys of the old state (code, category and status may change)
+        productCache.evict(product);
 
         product.setCode(productDetails.getCode());
         product.setName(productDetails.getName());
@@ -55,19 +190,27 @@ public class ProductService {
         product.setInventoryStatus(productDetails.getInventoryStatus());
         product.setRating(productDetails.getRating());
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCache.evict(saved);
+        return saved;
     }
 
     public void deleteProduct(Long id) {
-        getProductById(id); // Verify product exists
+        Product product = findProduct(id); // Verify product exists
         productRepository.deleteById(id);
+        productCache.evict(product);
     }
 
     public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+        return productCache.getByCategory(category, key -> List.copyOf(productRepository.findByCategory(key)));
     }
 
     public List<Product> getProductsByInventoryStatus(InventoryStatus status) {
-        return productRepository.findByInventoryStatus(status);
+        return productCache.getByStatus(status, key -> List.copyOf(productRepository.findByInventoryStatus(key)));
+    }
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
     }
 }
@@ -0,0 +1,38 @@
+package com.alten.shop.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically returns the stock of expired cart reservations, one batch per transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationSweeper {
+
+    private final CartService cartService;
+
+    @Value("${cart.reservation.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${cart.reservation.sweep-interval:PT1M}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int released;
+        // A batch with conflicts ends the run early; what is left is picked up by the next sweep
+        do {
+            released = cartService.releaseExpiredReservations(now, batchSize);
+            total += released;
+        } while (released == batchSize);
+        if (total > 0) {
+            log.info("Released {} expired cart reservations", total);
+        }
+    }
+}
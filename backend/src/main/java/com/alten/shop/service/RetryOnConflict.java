@@ -0,0 +1,29 @@
+package com.alten.shop.service;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional method when its commit hits an optimistic lock conflict,
+ * with exponential backoff and a bounded number of attempts (cart.retry.*).
+ * The retry advice wraps the transaction, so every attempt starts a fresh one.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${cart.retry.max-attempts:4}",
+        backoff = @Backoff(
+                delayExpression = "${cart.retry.initial-delay-ms:10}",
+                multiplierExpression = "${cart.retry.multiplier:2}",
+                maxDelayExpression = "${cart.retry.max-delay-ms:200}",
+                random = true),
+        listeners = "optimisticLockRetryListener")
+public @interface RetryOnConflict {
+}
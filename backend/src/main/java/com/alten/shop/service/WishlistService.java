@@ -8,6 +8,7 @@ import com.alten.shop.repository.ProductRepository;
 import com.alten.shop.repository.UserRepository;
 import com.alten.shop.repository.WishlistItemRepository;
 import com.alten.shop.repository.WishlistRepository;
+import com.alten.shop.security.UserIdResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,13 +21,15 @@ public class WishlistService {
     private final WishlistItemRepository wishlistItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final UserIdResolver userIdResolver;
 
     public Wishlist getOrCreateWishlist(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long userId = userIdResolver.resolve(userEmail);
 
-        return wishlistRepository.findByUserId(user.getId())
+        return wishlistRepository.findWithItemsByUserId(userId)
                 .orElseGet(() -> {
+                    User user = userRepository.findById(userId)
+                            .orElseThrow(() -> new RuntimeException("User not found"));
                     Wishlist wishlist = Wishlist.builder()
                             .user(user)
                             .build();
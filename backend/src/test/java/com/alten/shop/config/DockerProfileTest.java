@@ -0,0 +1,65 @@
+package com.alten.shop.config;
+
+import com.alten.shop.ShopApplication;
+import com.alten.shop.model.Contact;
+import com.alten.shop.repository.ContactRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DockerProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void whenContextRestarts_thenStateIsKeptAndCatalogIsNotReseeded() {
+        // Given
+        long products;
+        try (ConfigurableApplicationContext context = start()) {
+            products = context.getBean(ProductRepository.class).count();
+            context.getBean(ContactRepository.class).save(Contact.builder()
+                    .email("restart@test.com")
+                    .message("Still there after a restart?")
+                    .build());
+        }
+
+        // When
+        try (ConfigurableApplicationContext context = start()) {
+            // Then
+            assertThat(products).isPositive();
+            assertThat(context.getBean(ProductRepository.class).count()).isEqualTo(products);
+            assertThat(context.getBean(ContactRepository.class).findAll())
+                    .extracting(Contact::getEmail)
+                    .containsExactly("restart@test.com");
+        }
+    }
+
+    @Test
+    void whenDockerProfileActive_thenPoolIsFixedSize() throws Exception {
+        try (ConfigurableApplicationContext context = start()) {
+            HikariDataSource dataSource = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+
+            assertThat(dataSource.getPoolName()).isEqualTo("shop-pool");
+            assertThat(dataSource.getMinimumIdle()).isEqualTo(dataSource.getMaximumPoolSize());
+            assertThat(dataSource.getJdbcUrl()).startsWith("jdbc:h2:file:");
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ShopApplication.class)
+                .profiles("docker")
+                .run(
+                        "--server.port=0",
+                        "--SHOP_DB_URL=jdbc:h2:file:" + dataDir.resolve("shopdb") + ";DB_CLOSE_ON_EXIT=FALSE",
+                        "--JWT_SECRET=404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+    }
+}
@@ -0,0 +1,67 @@
+package com.alten.shop.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLoggerTest {
+
+    @Test
+    void whenStatementExceedsThreshold_thenLoggedWithCallSite(CapturedOutput output) throws Exception {
+        // Given
+        SlowQueryLogger logger = new SlowQueryLogger(Duration.ZERO, 1.0, 10);
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slowquery");
+        SlowQueryDataSource dataSource = new SlowQueryDataSource(h2, logger);
+
+        // When
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT 1");
+             ResultSet resultSet = statement.executeQuery()) {
+            assertThat(resultSet.next()).isTrue();
+        }
+        logger.destroy();
+
+        // Then
+        assertThat(output).contains("Slow query")
+                .contains("SELECT 1")
+                .contains(SlowQueryLoggerTest.class.getName() + ".whenStatementExceedsThreshold_thenLoggedWithCallSite");
+    }
+
+    @Test
+    void whenStatementUnderThreshold_thenNotLogged(CapturedOutput output) throws Exception {
+        // Given
+        SlowQueryLogger logger = new SlowQueryLogger(Duration.ofSeconds(1), 1.0, 10);
+
+        // When
+        logger.record("SELECT fast", TimeUnit.MILLISECONDS.toNanos(5));
+        logger.destroy();
+
+        // Then
+        assertThat(output).doesNotContain("SELECT fast");
+    }
+
+    @Test
+    void whenNotSampled_thenNotLogged(CapturedOutput output) throws Exception {
+        // Given
+        SlowQueryLogger logger = new SlowQueryLogger(Duration.ZERO, 0.0, 10);
+
+        // When
+        logger.record("SELECT unsampled", TimeUnit.SECONDS.toNanos(2));
+        logger.destroy();
+
+        // Then
+        assertThat(output).doesNotContain("SELECT unsampled");
+    }
+}
@@ -0,0 +1,99 @@
+package com.alten.shop.config;
+
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles({ "test", "synthetic" })
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:synthetic",
+        "synthetic.products=2000",
+        "synthetic.users=200",
+        "synthetic.batch-size=64"
+})
+@DirtiesContext
+class SyntheticDataGeneratorTest {
+
+    @Autowired
+    private SyntheticDataGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void whenStarted_thenSyntheticDataSetIsSeeded() {
+        assertThat(count("SELECT COUNT(*) FROM products WHERE code LIKE 'SYN%'")).isEqualTo(2000);
+        assertThat(count("SELECT COUNT(*) FROM users WHERE email LIKE '%@synthetic.test'")).isEqualTo(200);
+        assertThat(count("SELECT COUNT(*) FROM carts")).isEqualTo(120);
+        assertThat(count("SELECT COUNT(*) FROM wishlists")).isEqualTo(60);
+        assertThat(count("SELECT COUNT(*) FROM cart_items")).isBetween(120L, 1200L);
+        assertThat(count("SELECT COUNT(*) FROM wishlist_items")).isBetween(60L, 600L);
+    }
+
+    @Test
+    void whenStarted_thenCartLinesFavourPopularProducts() {
+        // Given
+        long firstProduct = count("SELECT MIN(id) FROM products WHERE code LIKE 'SYN%'");
+
+        // When
+        long lines = count("SELECT COUNT(*) FROM cart_items");
+        long popular = count("SELECT COUNT(*) FROM cart_items WHERE product_id < " + (firstProduct + 200));
+
+        // Then: the top 10% of the catalog draws far more than 10% of the lines
+        assertThat(popular * 100 / lines).isGreaterThan(30);
+    }
+
+    @Test
+    void whenProductsSavedAfterGeneration_thenIdsDoNotCollide() {
+        // Given: enough rows to use up the block Hibernate already holds and fetch new ones
+        List<Product> products = IntStream.range(0, 120)
+                .mapToObj(i -> Product.builder()
+                        .code("AFTER-SYNTHETIC-" + i)
+                        .name("Created after generation")
+                        .category("Electronics")
+                        .price(10.0)
+                        .quantity(5)
+                        .inventoryStatus(InventoryStatus.INSTOCK)
+                        .build())
+                .toList();
+        long firstSynthetic = count("SELECT MIN(id) FROM products WHERE code LIKE 'SYN%'");
+        long lastSynthetic = count("SELECT MAX(id) FROM products WHERE code LIKE 'SYN%'");
+
+        // When
+        List<Product> saved = productRepository.saveAll(products);
+
+        // Then
+        assertThat(saved).extracting(Product::getId)
+                .allMatch(id -> id < firstSynthetic || id > lastSynthetic);
+        productRepository.deleteAll(saved);
+    }
+
+    @Test
+    void whenRunAgain_thenNothingIsAdded() {
+        // When
+        generator.run();
+
+        // Then
+        assertThat(count("SELECT COUNT(*) FROM products WHERE code LIKE 'SYN%'")).isEqualTo(2000);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
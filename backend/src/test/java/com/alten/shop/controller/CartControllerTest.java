@@ -4,14 +4,17 @@ package com.alten.shop.controller;
 import com.alten.shop.dto.AddToCartRequest;
 import com.alten.shop.model.Cart;
 import com.alten.shop.model.CartItem;
+import com.alten.shop.model.Order;
 import com.alten.shop.model.Product;
 import com.alten.shop.service.CartService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -24,6 +27,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(CartController.class)
+@Import({IdempotencyStore.class, SimpleMeterRegistry.class})
 class CartControllerTest {
 
     @Autowired
@@ -90,6 +94,19 @@ class CartControllerTest {
         verify(cartService).updateCartItemQuantity("test@example.com", 1L, 3);
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void whenUpdateCartItemQuantityIsNotPositive_thenReturn400() throws Exception {
+        mockMvc.perform(put("/api/cart/items/1")
+                .param("quantity", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(put("/api/cart/items/1")
+                .param("quantity", "-1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(cartService, never()).updateCartItemQuantity(anyString(), anyLong(), anyInt());
+    }
+
     @Test
     @WithMockUser(username = "test@example.com")
     void whenRemoveFromCart_thenReturnUpdatedCart() throws Exception {
@@ -117,7 +134,7 @@ class CartControllerTest {
     @Test
     @WithMockUser(username = "test@example.com")
     void whenCheckout_thenReturnSuccessMessage() throws Exception {
-        doNothing().when(cartService).checkout("test@example.com");
+        when(cartService.checkout("test@example.com")).thenReturn(Order.builder().id(1L).build());
 
         mockMvc.perform(post("/api/cart/checkout"))
                 .andExpect(status().isOk())
@@ -0,0 +1,151 @@
+package com.alten.shop.controller;
+
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.OrderRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import com.alten.shop.service.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CartIdempotencyTest {
+
+    private static final String EMAIL = "retry@idempotency.test";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private CartService cartService;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore.clear();
+        product = productRepository.save(Product.builder()
+                .code("RETRY-SKU")
+                .name("Retry SKU")
+                .price(5.0)
+                .quantity(10)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build());
+        user = userRepository.save(User.builder()
+                .username("retry")
+                .firstname("Retry")
+                .email(EMAIL)
+                .password("secret")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId()));
+        cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete);
+        userRepository.delete(user);
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    void whenAddToCartIsRetriedWithSameKey_thenReplayWithoutReservingTwice() throws Exception {
+        String body = "{\"productId\":" + product.getId() + ",\"quantity\":2}";
+
+        String first = mockMvc.perform(post("/api/cart/items")
+                        .header("Idempotency-Key", "add-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(jsonPath("$.items[0].quantity").value(2))
+                .andExpect(jsonPath("$.items[0].product.name").value("Retry SKU"))
+                .andExpect(jsonPath("$.items[0].lineTotal").value(10.0))
+                .andExpect(jsonPath("$.subtotal").value(10.0))
+                .andExpect(jsonPath("$.itemCount").value(2))
+                .andExpect(jsonPath("$.user").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+
+        String replay = mockMvc.perform(post("/api/cart/items")
+                        .header("Idempotency-Key", "add-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(replay).isEqualTo(first);
+        verify(cartService, times(1)).addToCart(anyString(), any());
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    void whenKeyIsReusedForDifferentRequest_thenReturn422() throws Exception {
+        mockMvc.perform(post("/api/cart/items")
+                        .header("Idempotency-Key", "add-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + product.getId() + ",\"quantity\":1}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/cart/items")
+                        .header("Idempotency-Key", "add-2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + product.getId() + ",\"quantity\":3}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    @WithMockUser(username = EMAIL)
+    void whenCheckoutIsRetriedWithSameKey_thenPlaceOneOrder() throws Exception {
+        mockMvc.perform(post("/api/cart/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":" + product.getId() + ",\"quantity\":1}"))
+                .andExpect(status().isOk());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/cart/checkout").header("Idempotency-Key", "checkout-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Order placed successfully"));
+        }
+
+        verify(cartService, times(1)).checkout(EMAIL);
+        assertThat(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId())).hasSize(1);
+    }
+}
@@ -1,6 +1,11 @@
 package com.alten.shop.controller;
 
 import com.alten.shop.config.WithAdminUser;
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.service.CartService;
+import com.alten.shop.service.ProductCache;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -8,8 +13,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -21,6 +29,18 @@ class ProductControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     @WithMockUser
     void whenGetAllProducts_thenReturnProductList() throws Exception {
@@ -39,6 +59,87 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content").isArray());
     }
 
+    @Test
+    @WithMockUser
+    void whenGetAllProductsWithCursor_thenReturnKeysetPage() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("after", "")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetAllProductsWithOversizedCursorPage_thenReturn400() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("after", "")
+                .param("size", "10000000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetAllProductsWithInvalidCursor_thenReturn400() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("after", "%%%"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetAllProductsWithPaginationWithoutCount_thenReturnSlice() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "10")
+                .param("count", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetAllProductsStreamed_thenReturnJsonArray() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/products")
+                .param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$").isArray())
+                .andExpect(jsonPath("$[0].code").exists());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetAllProductsSummaryView_thenOmitDetailFields() throws Exception {
+        mockMvc.perform(get("/api/products")
+                .param("page", "0")
+                .param("size", "5")
+                .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").exists())
+                .andExpect(jsonPath("$.content[0].price").exists())
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].internalReference").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetProductsByCategorySummaryView_thenOmitDetailFields() throws Exception {
+        mockMvc.perform(get("/api/products/category/Electronics")
+                .param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").exists())
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+    }
+
     @Test
     @WithMockUser
     void whenGetProductById_thenReturnProduct() throws Exception {
@@ -46,6 +147,90 @@ class ProductControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @WithMockUser
+    void whenGetProductByIdWithMatchingETag_thenReturn304() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/products/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/1")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @WithMockUser
+    void whenGetProductsByCategoryWithMatchingETag_thenReturn304() throws Exception {
+        MvcResult first = mockMvc.perform(get("/api/products/category/Electronics"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/products/category/Electronics")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/products/category/Electronics")
+                .param("view", "summary")
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void whenStockChangesAfterETagWasIssued_thenReturnFreshProduct() throws Exception {
+        String productTag = mockMvc.perform(get("/api/products/1"))
+                .andReturn().getResponse().getHeader("ETag");
+        String categoryTag = mockMvc.perform(get("/api/products/category/Electronics"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        cartService.addToCart("hosnibey@admin.com", new AddToCartRequest(1L, 1));
+        // The next request gets a new persistence context, not the one holding the rows read above
+        entityManager.clear();
+
+        mockMvc.perform(get("/api/products/1")
+                .header("If-None-Match", productTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(productTag)));
+        mockMvc.perform(get("/api/products/category/Electronics")
+                .header("If-None-Match", categoryTag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser
+    void whenStockChangesTwiceInSameMillisecond_thenListETagsDiffer() throws Exception {
+        long now = System.currentTimeMillis();
+
+        productRepository.decrementQuantity(1L, 1, now);
+        String[] first = listETags();
+        productRepository.decrementQuantity(1L, 1, now);
+        String[] second = listETags();
+
+        for (int i = 0; i < first.length; i++) {
+            assertThat(second[i]).isNotEqualTo(first[i]);
+        }
+    }
+
+    // Re-reads the rows the bulk updates changed, bypassing the cache and the persistence context
+    private String[] listETags() throws Exception {
+        entityManager.clear();
+        productCache.clear();
+        return new String[] {
+                mockMvc.perform(get("/api/products")).andReturn().getResponse().getHeader("ETag"),
+                mockMvc.perform(get("/api/products").param("view", "summary"))
+                        .andReturn().getResponse().getHeader("ETag"),
+                mockMvc.perform(get("/api/products/category/Electronics"))
+                        .andReturn().getResponse().getHeader("ETag"),
+                mockMvc.perform(get("/api/products/category/Electronics").param("view", "summary"))
+                        .andReturn().getResponse().getHeader("ETag")
+        };
+    }
+
     @Test
     @WithMockUser
     void whenGetProductByIdNotFound_thenReturn404() throws Exception {
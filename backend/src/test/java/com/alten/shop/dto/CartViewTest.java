@@ -0,0 +1,48 @@
+package com.alten.shop.dto;
+
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartViewTest {
+
+    @Test
+    void whenBuiltFromCart_thenComputeTotalsAndLeaveOutUser() throws Exception {
+        // Given
+        Cart cart = Cart.builder()
+                .id(1L)
+                .user(User.builder().id(2L).email("test@test.com").password("$2a$10$hash").build())
+                .items(new ArrayList<>())
+                .build();
+        cart.addItem(CartItem.builder().id(10L).product(product(1L, 12.5)).quantity(2).build());
+        cart.addItem(CartItem.builder().id(11L).product(product(2L, 3.0)).quantity(3).build());
+
+        // When
+        CartView view = CartView.from(cart);
+        String json = new ObjectMapper().writeValueAsString(view);
+
+        // Then
+        assertThat(view.subtotal()).isEqualTo(34.0);
+        assertThat(view.itemCount()).isEqualTo(5);
+        assertThat(view.items()).extracting(CartView.Line::lineTotal).containsExactly(25.0, 9.0);
+        assertThat(json).doesNotContain("password", "$2a$10$hash", "test@test.com");
+    }
+
+    private Product product(Long id, Double price) {
+        return Product.builder()
+                .id(id)
+                .code("P" + id)
+                .name("Product " + id)
+                .price(price)
+                .image("https://example.com/" + id + ".jpg")
+                .category("Test")
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package com.alten.shop.repository;
+
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that bulk writes go out as JDBC batches: with sequence ids and hibernate.jdbc.batch_size,
+ * Hibernate prepares one statement per batch instead of one per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class BatchWriteTest {
+
+    private static final int PRODUCTS = 41;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void whenSaveAllProducts_thenInsertThemInOneBatch() {
+        // Given
+        List<Product> products = IntStream.range(0, PRODUCTS).mapToObj(this::product).toList();
+        statistics.clear();
+
+        // When
+        productRepository.saveAll(products);
+        entityManager.flush();
+
+        // Then: one sequence call for the pooled block, one batched insert
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void whenUpdateManyProducts_thenUpdateThemInOneBatch() {
+        // Given
+        productRepository.saveAll(IntStream.range(0, PRODUCTS).mapToObj(this::product).toList());
+        entityManager.flush();
+        entityManager.clear();
+        List<Product> products = productRepository.findAll();
+        statistics.clear();
+
+        // When
+        products.forEach(product -> product.setPrice(product.getPrice() + 1));
+        entityManager.flush();
+
+        // Then
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(PRODUCTS);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private Product product(int i) {
+        return Product.builder()
+                .code("BATCH" + i)
+                .name("Product " + i)
+                .price(10.0 + i)
+                .quantity(10)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.alten.shop.repository;
+
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class CartRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .username("owner")
+                .firstname("Owner")
+                .email("owner@cart.test")
+                .password("secret")
+                .build());
+        Cart cart = entityManager.persist(Cart.builder().user(user).build());
+        for (int i = 0; i < 3; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .code("CART" + i)
+                    .name("Product " + i)
+                    .price(10.0 + i)
+                    .quantity(10)
+                    .inventoryStatus(InventoryStatus.INSTOCK)
+                    .build());
+            cart.addItem(entityManager.persist(CartItem.builder()
+                    .cart(cart)
+                    .product(product)
+                    .quantity(1)
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void whenFindWithItemsByUserId_thenLoadCartItemsAndProductsInOneStatement() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        Cart cart = cartRepository.findWithItemsByUserId(user.getId()).orElseThrow();
+        cart.getItems().forEach(item -> item.getProduct().getName());
+
+        // Then
+        assertThat(cart.getItems()).hasSize(3);
+        assertThat(cart.getUser().getEmail()).isEqualTo("owner@cart.test");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
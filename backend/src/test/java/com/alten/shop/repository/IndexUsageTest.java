@@ -0,0 +1,121 @@
+package com.alten.shop.repository;
+
+import com.alten.shop.model.InventoryStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that H2 resolves the repository finders through the declared indexes
+ * instead of a table scan. Each finder is called, and the SQL Hibernate generated
+ * for it is explained with the same parameter values.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.alten.shop.repository.RecordingStatementInspector")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class IndexUsageTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private WishlistItemRepository wishlistItemRepository;
+
+    @Test
+    void whenFindProductsByCategory_thenCategoryIndexIsUsed() {
+        String sql = generatedSql(() -> productRepository.findByCategory("Electronics"));
+
+        assertThat(explain(sql, "Electronics")).containsIgnoringCase("idx_products_category");
+    }
+
+    @Test
+    void whenFindProductsByInventoryStatus_thenStatusIndexIsUsed() {
+        String sql = generatedSql(() -> productRepository.findByInventoryStatus(InventoryStatus.INSTOCK));
+
+        assertThat(explain(sql, InventoryStatus.INSTOCK.name())).containsIgnoringCase("idx_products_inventory_status");
+    }
+
+    @Test
+    void whenFindContactsByEmail_thenEmailIndexIsUsed() {
+        String sql = generatedSql(() -> contactRepository.findByEmail("a@b.com"));
+
+        assertThat(explain(sql, "a@b.com")).containsIgnoringCase("idx_contacts_email");
+    }
+
+    @Test
+    void whenFindCartItemByCartAndProduct_thenCompositeIndexIsUsed() {
+        String sql = generatedSql(() -> cartItemRepository.findByCartIdAndProductId(1L, 2L));
+
+        assertThat(explain(sql, 1L, 2L)).containsIgnoringCase("uk_cart_items_cart_product");
+    }
+
+    // Cart lines are joined on cart_id; H2 may pick its own foreign key index, either way the join must not scan
+    @Test
+    void whenFindCartWithItemsByUser_thenItemsAreJoinedThroughAnIndex() {
+        String sql = generatedSql(() -> cartRepository.findWithItemsByUserId(1L));
+
+        assertThat(explain(sql, 1L)).doesNotContainIgnoringCase("tableScan");
+    }
+
+    @Test
+    void whenFindExpiredReservations_thenReservedUntilIndexIsUsed() {
+        LocalDateTime now = LocalDateTime.now();
+        String sql = generatedSql(() -> cartItemRepository.findExpiredReservations(now, Limit.of(10)));
+
+        // Limit is bound as offset 0 and the row count
+        assertThat(explain(sql, now, 0, 10)).containsIgnoringCase("idx_cart_items_reserved_until");
+    }
+
+    @Test
+    void whenFindWishlistItemByWishlistAndProduct_thenCompositeIndexIsUsed() {
+        String sql = generatedSql(() -> wishlistItemRepository.findByWishlistIdAndProductId(1L, 2L));
+
+        assertThat(explain(sql, 1L, 2L)).containsIgnoringCase("uk_wishlist_items_wishlist_product");
+    }
+
+    // The derived delete reads the lines first; H2 may pick its own foreign key index, either way it must not scan
+    @Test
+    void whenDeleteWishlistItemsByWishlist_thenCompositeIndexPrefixIsUsed() {
+        String sql = generatedSql(() -> wishlistItemRepository.deleteByWishlistId(1L));
+
+        assertThat(explain(sql, 1L)).doesNotContainIgnoringCase("tableScan");
+    }
+
+    // The finder runs against empty tables, so it sends exactly one SELECT
+    private String generatedSql(Runnable finder) {
+        RecordingStatementInspector.clear();
+        finder.run();
+        List<String> statements = RecordingStatementInspector.statements();
+        assertThat(statements).hasSize(1);
+        return statements.get(0);
+    }
+
+    private String explain(String sql, Object... parameters) {
+        Query query = entityManager.createNativeQuery("EXPLAIN " + sql);
+        for (int i = 0; i < parameters.length; i++) {
+            query.setParameter(i + 1, parameters[i]);
+        }
+        return String.valueOf(query.getSingleResult());
+    }
+}
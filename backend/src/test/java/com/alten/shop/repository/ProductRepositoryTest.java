@@ -1,11 +1,13 @@
 package com.alten.shop.repository;
 
+import com.alten.shop.dto.ProductSummary;
 import com.alten.shop.model.InventoryStatus;
 import com.alten.shop.model.Product;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -103,6 +105,26 @@ class ProductRepositoryTest {
         assertThat(page.getTotalPages()).isEqualTo(2);
     }
 
+    @Test
+    void whenFindByIdGreaterThan_thenReturnNextKeysetPage() {
+        // Given
+        Long firstId = null;
+        for (int i = 0; i < 5; i++) {
+            Product saved = entityManager.persist(createTestProduct("SEEK" + i, "Product " + i, 10.0 + i));
+            if (firstId == null) {
+                firstId = saved.getId();
+            }
+        }
+        entityManager.flush();
+
+        // When
+        List<Product> page = productRepository.findByIdGreaterThanOrderByIdAsc(firstId, Limit.of(3));
+
+        // Then
+        assertThat(page).hasSize(3);
+        assertThat(page).extracting(Product::getCode).containsExactly("SEEK1", "SEEK2", "SEEK3");
+    }
+
     @Test
     void whenFindByCategory_thenReturnProductsInCategory() {
         // Given
@@ -149,6 +171,42 @@ class ProductRepositoryTest {
         assertThat(inStockProducts).allMatch(p -> p.getInventoryStatus() == InventoryStatus.INSTOCK);
     }
 
+    @Test
+    void whenFindSummariesByCategory_thenReturnListViewProjection() {
+        // Given
+        Product product = createTestProduct("SUM001", "Summary Product", 59.99);
+        product.setCategory("Summaries");
+        entityManager.persistAndFlush(product);
+
+        // When
+        List<ProductSummary> summaries = productRepository.findSummariesByCategory("Summaries");
+
+        // Then
+        assertThat(summaries).hasSize(1);
+        ProductSummary summary = summaries.get(0);
+        assertThat(summary.id()).isEqualTo(product.getId());
+        assertThat(summary.name()).isEqualTo("Summary Product");
+        assertThat(summary.price()).isEqualTo(59.99);
+        assertThat(summary.inventoryStatus()).isEqualTo(InventoryStatus.INSTOCK);
+        assertThat(summary.rating()).isEqualTo(4.5);
+    }
+
+    @Test
+    void whenFindSummariesWithPagination_thenReturnPagedProjection() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            entityManager.persist(createTestProduct("SUMP" + i, "Product " + i, 10.0 + i));
+        }
+        entityManager.flush();
+
+        // When
+        Page<ProductSummary> page = productRepository.findSummariesBy(PageRequest.of(0, 2));
+
+        // Then
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isEqualTo(3);
+    }
+
     @Test
     void whenDeleteProduct_thenProductIsRemoved() {
         // Given
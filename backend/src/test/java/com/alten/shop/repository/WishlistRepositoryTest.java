@@ -0,0 +1,76 @@
+package com.alten.shop.repository;
+
+import com.alten.shop.model.Wishlist;
+import com.alten.shop.model.WishlistItem;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class WishlistRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .username("owner")
+                .firstname("Owner")
+                .email("owner@wishlist.test")
+                .password("secret")
+                .build());
+        Wishlist wishlist = entityManager.persist(Wishlist.builder().user(user).build());
+        for (int i = 0; i < 3; i++) {
+            Product product = entityManager.persist(Product.builder()
+                    .code("WISHLIST" + i)
+                    .name("Product " + i)
+                    .price(10.0 + i)
+                    .quantity(10)
+                    .inventoryStatus(InventoryStatus.INSTOCK)
+                    .build());
+            wishlist.addItem(entityManager.persist(WishlistItem.builder()
+                    .wishlist(wishlist)
+                    .product(product)
+                    .build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void whenFindWithItemsByUserId_thenLoadWishlistItemsAndProductsInOneStatement() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        Wishlist wishlist = wishlistRepository.findWithItemsByUserId(user.getId()).orElseThrow();
+        wishlist.getItems().forEach(item -> item.getProduct().getName());
+
+        // Then
+        assertThat(wishlist.getItems()).hasSize(3);
+        assertThat(wishlist.getUser().getEmail()).isEqualTo("owner@wishlist.test");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
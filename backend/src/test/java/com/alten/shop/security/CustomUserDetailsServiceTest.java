@@ -0,0 +1,83 @@
+package com.alten.shop.security;
+
+import com.alten.shop.model.User;
+import com.alten.shop.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CustomUserDetailsService userDetailsService;
+
+    private final User user = User.builder()
+            .id(1L)
+            .email("test@test.com")
+            .password("hash")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new CustomUserDetailsService(
+                userRepository, Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void whenLoadSameUserTwice_thenQueryRepositoryOnce() {
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("test@test.com");
+        UserDetails details = userDetailsService.loadUserByUsername("test@test.com");
+
+        assertThat(details.getUsername()).isEqualTo("test@test.com");
+        verify(userRepository, times(1)).findByEmail("test@test.com");
+    }
+
+    @Test
+    void whenCredentialsAreErased_thenCachedUserKeepsPassword() {
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+
+        ((CredentialsContainer) userDetailsService.loadUserByUsername("test@test.com")).eraseCredentials();
+
+        assertThat(userDetailsService.loadUserByUsername("test@test.com").getPassword()).isEqualTo("hash");
+    }
+
+    @Test
+    void whenUserIsEvicted_thenReloadFromRepository() {
+        when(userRepository.findByEmail("test@test.com")).thenReturn(Optional.of(user));
+
+        userDetailsService.loadUserByUsername("test@test.com");
+        userDetailsService.evict("test@test.com");
+        userDetailsService.loadUserByUsername("test@test.com");
+
+        verify(userRepository, times(2)).findByEmail("test@test.com");
+    }
+
+    @Test
+    void whenUserDoesNotExist_thenThrowAndDoNotCache() {
+        when(userRepository.findByEmail("ghost@test.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost@test.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost@test.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepository, times(2)).findByEmail("ghost@test.com");
+    }
+}
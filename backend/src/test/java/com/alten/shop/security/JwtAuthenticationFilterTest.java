@@ -0,0 +1,72 @@
+package com.alten.shop.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService);
+        request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        when(jwtService.verify("token"))
+                .thenReturn(new VerifiedToken("test@test.com", 42L, Instant.now().plusSeconds(60)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenStateless_thenAuthenticateFromTokenWithoutLookup() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(authentication.getName()).isEqualTo("test@test.com");
+        assertThat(((AuthenticatedUser) authentication.getPrincipal()).getId()).isEqualTo(42L);
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void whenNotStateless_thenAuthenticateLoadedUser() throws Exception {
+        when(userDetailsService.loadUserByUsername("test@test.com"))
+                .thenReturn(new User("test@test.com", "hash", new ArrayList<>()));
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("test@test.com");
+        verify(jwtService, times(1)).verify("token");
+    }
+}
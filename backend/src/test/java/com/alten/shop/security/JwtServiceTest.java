@@ -1,10 +1,15 @@
 package com.alten.shop.security;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Instant;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class JwtServiceTest {
 
@@ -18,6 +23,7 @@ class JwtServiceTest {
         ReflectionTestUtils.setField(jwtService, "secretKey",
                 "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
         ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        jwtService.init();
     }
 
     @Test
@@ -78,4 +84,64 @@ class JwtServiceTest {
         assertThat(extractedEmail).isEqualTo(testEmail);
         assertThat(jwtService.isTokenValid(token, testEmail)).isTrue();
     }
+
+    @Test
+    void whenVerifyToken_thenReturnSubjectAndExpiry() {
+        // Given
+        String token = jwtService.generateToken(testEmail);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertThat(verified.subject()).isEqualTo(testEmail);
+        assertThat(verified.expiresAt()).isAfter(Instant.now());
+    }
+
+    @Test
+    void whenVerifySameTokenTwice_thenReuseCachedResult() {
+        // Given
+        String token = jwtService.generateToken(testEmail);
+
+        // When
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        // Then
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void whenVerifyTamperedToken_thenThrow() {
+        // Given
+        String token = jwtService.generateToken(testEmail);
+        jwtService.verify(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When / Then
+        assertThatThrownBy(() -> jwtService.verify(tampered)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void whenVerifyExpiredToken_thenThrow() {
+        // Given
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", -1000L);
+        String token = jwtService.generateToken(testEmail);
+
+        // When / Then
+        assertThatThrownBy(() -> jwtService.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void whenGenerateTokenWithUserId_thenVerifiedTokenCarriesIt() {
+        // Given
+        String token = jwtService.generateToken(testEmail, 42L);
+
+        // When
+        VerifiedToken verified = jwtService.verify(token);
+
+        // Then
+        assertThat(verified.userId()).isEqualTo(42L);
+        assertThat(jwtService.verify(jwtService.generateToken(testEmail)).userId()).isNull();
+    }
 }
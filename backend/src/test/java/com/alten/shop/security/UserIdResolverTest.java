@@ -0,0 +1,59 @@
+package com.alten.shop.security;
+
+import com.alten.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdResolverTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserIdResolver userIdResolver;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenPrincipalCarriesId_thenResolveWithoutQuery() {
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "test@test.com", "", new ArrayList<>());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertThat(userIdResolver.resolve("test@test.com")).isEqualTo(7L);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void whenNoPrincipal_thenQueryIdByEmail() {
+        when(userRepository.findIdByEmail("test@test.com")).thenReturn(Optional.of(7L));
+
+        assertThat(userIdResolver.resolve("test@test.com")).isEqualTo(7L);
+    }
+
+    @Test
+    void whenUserDoesNotExist_thenThrow() {
+        when(userRepository.findIdByEmail("ghost@test.com")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> userIdResolver.resolve("ghost@test.com"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("User not found");
+    }
+}
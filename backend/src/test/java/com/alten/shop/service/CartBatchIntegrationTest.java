@@ -0,0 +1,105 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.dto.CartOperation;
+import com.alten.shop.exception.InsufficientStockException;
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartBatchIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Product first;
+    private Product second;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        first = productRepository.save(product("BATCH-1", 10));
+        second = productRepository.save(product("BATCH-2", 3));
+        user = userRepository.save(User.builder()
+                .username("batch")
+                .firstname("Batch")
+                .email("batch@cart.test")
+                .password("secret")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete);
+        userRepository.delete(user);
+        productRepository.deleteAllById(List.of(first.getId(), second.getId()));
+    }
+
+    @Test
+    void whenApplyOperations_thenCartAndStockReflectAllOfThem() {
+        // Given
+        Cart cart = cartService.addToCart(user.getEmail(), new AddToCartRequest(first.getId(), 4));
+        Long firstItemId = cart.getItems().get(0).getId();
+
+        // When
+        Cart updated = cartService.applyOperations(user.getEmail(), List.of(
+                new CartOperation(CartOperation.Type.UPDATE, null, firstItemId, 1),
+                new CartOperation(CartOperation.Type.ADD, second.getId(), null, 2)));
+
+        // Then
+        assertThat(updated.getItems())
+                .extracting(CartItem::getQuantity)
+                .containsExactlyInAnyOrder(1, 2);
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getQuantity()).isEqualTo(9);
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getQuantity()).isEqualTo(1);
+    }
+
+    @Test
+    void whenOneOperationLacksStock_thenNothingIsApplied() {
+        // When / Then
+        assertThatThrownBy(() -> cartService.applyOperations(user.getEmail(), List.of(
+                new CartOperation(CartOperation.Type.ADD, first.getId(), null, 2),
+                new CartOperation(CartOperation.Type.ADD, second.getId(), null, 5))))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(productRepository.findById(first.getId()).orElseThrow().getQuantity()).isEqualTo(10);
+        assertThat(productRepository.findById(second.getId()).orElseThrow().getQuantity()).isEqualTo(3);
+    }
+
+    private Product product(String code, int quantity) {
+        return Product.builder()
+                .code(code)
+                .name(code)
+                .price(5.0)
+                .quantity(quantity)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build();
+    }
+}
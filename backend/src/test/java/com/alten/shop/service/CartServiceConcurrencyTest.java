@@ -0,0 +1,111 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.exception.InsufficientStockException;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hammers a single SKU from many threads against the real database and checks
+ * that the atomic reservation never oversells.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceConcurrencyTest {
+
+    private static final int STOCK = 10;
+    private static final int THREADS = 24;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Product product;
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .code("HOT-SKU")
+                .name("Hot SKU")
+                .price(10.0)
+                .quantity(STOCK)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build());
+        for (int i = 0; i < THREADS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .username("buyer" + i)
+                    .firstname("Buyer")
+                    .email("buyer" + i + "@concurrency.test")
+                    .password("secret")
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        users.forEach(user -> cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete));
+        userRepository.deleteAll(users);
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void whenManyThreadsAddTheSameSku_thenStockIsNeverOversold() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (User user : users) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 1));
+                    accepted.incrementAndGet();
+                } catch (InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(accepted.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(THREADS - STOCK);
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isZero();
+    }
+}
@@ -0,0 +1,91 @@
+package com.alten.shop.service;
+
+import com.alten.shop.model.Cart;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceRetryTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @SpyBean
+    private CartRepository cartRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .username("retry")
+                .firstname("Retry")
+                .email("retry@retry.test")
+                .password("secret")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(cartRepository);
+        cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete);
+        userRepository.delete(user);
+    }
+
+    @Test
+    void whenCartMutationConflictsOnce_thenItIsRetriedAndSucceeds() {
+        double conflictsBefore = counter("cart.optimistic.conflicts");
+        double retriesBefore = counter("cart.optimistic.retries");
+        cartService.getOrCreateCart(user.getEmail());
+        clearInvocations(cartRepository);
+        doThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L))
+                .doAnswer(invocation -> invocation.getArgument(0))
+                .when(cartRepository).save(any(Cart.class));
+
+        cartService.clearCart(user.getEmail());
+
+        verify(cartRepository, times(2)).save(any(Cart.class));
+        assertThat(counter("cart.optimistic.conflicts") - conflictsBefore).isEqualTo(1);
+        assertThat(counter("cart.optimistic.retries") - retriesBefore).isEqualTo(1);
+    }
+
+    @Test
+    void whenCartMutationKeepsConflicting_thenGiveUpAfterMaxAttempts() {
+        double exhaustedBefore = counter("cart.optimistic.exhausted");
+        cartService.getOrCreateCart(user.getEmail());
+        clearInvocations(cartRepository);
+        doThrow(new ObjectOptimisticLockingFailureException(Cart.class, 1L))
+                .when(cartRepository).save(any(Cart.class));
+
+        assertThatThrownBy(() -> cartService.clearCart(user.getEmail()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(cartRepository, times(4)).save(any(Cart.class));
+        assertThat(counter("cart.optimistic.exhausted") - exhaustedBefore).isEqualTo(1);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+}
@@ -1,26 +1,48 @@
 package com.alten.shop.service;
 
 import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.dto.CartOperation;
+import com.alten.shop.dto.ExpiredReservation;
+import com.alten.shop.dto.OrderPlacedEvent;
+import com.alten.shop.exception.InsufficientStockException;
 import com.alten.shop.model.Cart;
 import com.alten.shop.model.CartItem;
+import com.alten.shop.model.Order;
+import com.alten.shop.model.OrderStatus;
 import com.alten.shop.model.Product;
 import com.alten.shop.model.User;
 import com.alten.shop.repository.CartItemRepository;
 import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.OrderRepository;
 import com.alten.shop.repository.ProductRepository;
 import com.alten.shop.repository.UserRepository;
+import com.alten.shop.security.UserIdResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +60,18 @@ class CartServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserIdResolver userIdResolver;
+
+    @Mock
+    private ProductCache productCache;
+
     @InjectMocks
     private CartService cartService;
 
@@ -64,12 +98,14 @@ class CartServiceTest {
                 .user(testUser)
                 .items(new ArrayList<>())
                 .build();
+
+        ReflectionTestUtils.setField(cartService, "reservationTtl", Duration.ofMinutes(15));
     }
 
     @Test
     void whenGetOrCreateCart_andCartExists_thenReturnCart() {
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
 
         Cart result = cartService.getOrCreateCart(testUser.getEmail());
 
@@ -79,8 +115,9 @@ class CartServiceTest {
 
     @Test
     void whenGetOrCreateCart_andCartDoesNotExist_thenCreateCart() {
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.empty());
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.empty());
+        when(userRepository.findById(testUser.getId())).thenReturn(Optional.of(testUser));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
         Cart result = cartService.getOrCreateCart(testUser.getEmail());
@@ -93,8 +130,9 @@ class CartServiceTest {
     void whenAddToCart_andItemIsNew_thenAddItem() {
         AddToCartRequest request = new AddToCartRequest(1L, 2);
 
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(productRepository.decrementQuantity(eq(1L), eq(2), anyLong())).thenReturn(1);
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct.getId()))
                 .thenReturn(Optional.empty());
@@ -104,8 +142,33 @@ class CartServiceTest {
 
         assertThat(result).isNotNull();
         verify(cartItemRepository).save(any(CartItem.class));
-        verify(productRepository).save(testProduct);
-        assertThat(testProduct.getQuantity()).isEqualTo(8); // 10 - 2
+        verify(productRepository).decrementQuantity(eq(1L), eq(2), anyLong());
+        verify(productRepository, never()).save(any(Product.class));
+        verify(productCache).evict(testProduct);
+    }
+
+    @Test
+    void whenAddToCart_andStockIsInsufficient_thenRejectWithoutTouchingCart() {
+        AddToCartRequest request = new AddToCartRequest(1L, 20);
+
+        when(productRepository.decrementQuantity(eq(1L), eq(20), anyLong())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> cartService.addToCart(testUser.getEmail(), request))
+                .isInstanceOf(InsufficientStockException.class);
+        verifyNoInteractions(cartRepository, cartItemRepository);
+    }
+
+    @Test
+    void whenAddToCart_andProductDoesNotExist_thenThrowNotFound() {
+        AddToCartRequest request = new AddToCartRequest(99L, 1);
+
+        when(productRepository.decrementQuantity(eq(99L), eq(1), anyLong())).thenReturn(0);
+        when(productRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> cartService.addToCart(testUser.getEmail(), request))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Product not found");
     }
 
     @Test
@@ -117,10 +180,12 @@ class CartServiceTest {
                 .cart(testCart)
                 .product(testProduct)
                 .quantity(1)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
                 .build();
 
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(productRepository.decrementQuantity(eq(1L), eq(2), anyLong())).thenReturn(1);
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
         when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
         when(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct.getId()))
                 .thenReturn(Optional.of(existingItem));
@@ -130,7 +195,126 @@ class CartServiceTest {
 
         assertThat(result).isNotNull();
         assertThat(existingItem.getQuantity()).isEqualTo(3); // 1 + 2
-        verify(productRepository).save(testProduct);
+        verify(productRepository).decrementQuantity(eq(1L), eq(2), anyLong());
+    }
+
+    @Test
+    void whenAddToCart_andExistingReservationWasReleased_thenReserveWholeLineAgain() {
+        AddToCartRequest request = new AddToCartRequest(1L, 2);
+
+        CartItem releasedItem = CartItem.builder()
+                .id(1L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(3)
+                .build();
+
+        when(productRepository.decrementQuantity(eq(1L), eq(2), anyLong())).thenReturn(1);
+        when(productRepository.decrementQuantity(eq(1L), eq(3), anyLong())).thenReturn(1);
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(cartItemRepository.findByCartIdAndProductId(testCart.getId(), testProduct.getId()))
+                .thenReturn(Optional.of(releasedItem));
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+
+        cartService.addToCart(testUser.getEmail(), request);
+
+        assertThat(releasedItem.getQuantity()).isEqualTo(5);
+        assertThat(releasedItem.getReservedUntil()).isAfter(LocalDateTime.now());
+        verify(productRepository).decrementQuantity(eq(1L), eq(3), anyLong());
+    }
+
+    @Test
+    void whenUpdateCartItemQuantity_withZeroOrNegative_thenRejectWithoutTouchingStock() {
+        for (int quantity : new int[] {0, -1000}) {
+            assertThatThrownBy(() -> cartService.updateCartItemQuantity(testUser.getEmail(), 1L, quantity))
+                    .hasMessage("Quantity must be at least 1");
+        }
+
+        verifyNoInteractions(cartItemRepository, productRepository);
+    }
+
+    @Test
+    void whenUpdateCartItemQuantity_andReservationExpired_thenReserveWholeLine() {
+        CartItem expiredItem = CartItem.builder()
+                .id(1L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(3)
+                .build();
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(cartItemRepository.findById(1L)).thenReturn(Optional.of(expiredItem));
+        when(productRepository.decrementQuantity(eq(1L), eq(2), anyLong())).thenReturn(1);
+
+        cartService.updateCartItemQuantity(testUser.getEmail(), 1L, 2);
+
+        assertThat(expiredItem.getQuantity()).isEqualTo(2);
+        assertThat(expiredItem.holdsStock()).isTrue();
+        verify(productRepository, never()).incrementQuantity(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void whenReleaseExpiredReservations_thenReturnStockOncePerProduct() {
+        LocalDateTime now = LocalDateTime.now();
+        when(cartItemRepository.findExpiredReservations(now, Limit.of(10))).thenReturn(List.of(
+                new ExpiredReservation(1L, 1L, 2, 0L),
+                new ExpiredReservation(2L, 1L, 3, 0L),
+                new ExpiredReservation(3L, 2L, 1, 4L)));
+        when(cartItemRepository.releaseReservation(1L, 0L, now)).thenReturn(1);
+        when(cartItemRepository.releaseReservation(2L, 0L, now)).thenReturn(1);
+        when(cartItemRepository.releaseReservation(3L, 4L, now)).thenReturn(0); // touched by its owner meanwhile
+        when(productRepository.findAllById(Set.of(1L))).thenReturn(List.of(testProduct));
+
+        int released = cartService.releaseExpiredReservations(now, 10);
+
+        assertThat(released).isEqualTo(2);
+        verify(productRepository).incrementQuantity(eq(1L), eq(5), anyLong());
+        verify(productRepository, never()).incrementQuantity(eq(2L), anyInt(), anyLong());
+        verify(productCache).evict(testProduct);
+    }
+
+    @Test
+    void whenClearCart_thenDeleteLinesBeforeRestoringHeldStock() {
+        CartItem item = CartItem.builder()
+                .id(1L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(2)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
+                .build();
+        testCart.getItems().add(item);
+
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+
+        cartService.clearCart(testUser.getEmail());
+
+        InOrder inOrder = inOrder(cartItemRepository, productRepository);
+        inOrder.verify(cartItemRepository).deleteAll(List.of(item));
+        inOrder.verify(cartItemRepository).flush();
+        inOrder.verify(productRepository).incrementQuantity(eq(1L), eq(2), anyLong());
+        assertThat(testCart.getItems()).isEmpty();
+    }
+
+    @Test
+    void whenClearCart_andLineWasReleasedMeanwhile_thenRestoreNothing() {
+        testCart.getItems().add(CartItem.builder()
+                .id(1L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(2)
+                .reservedUntil(LocalDateTime.now().minusMinutes(1))
+                .build());
+
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        doThrow(new ObjectOptimisticLockingFailureException(CartItem.class, 1L)).when(cartItemRepository).flush();
+
+        assertThatThrownBy(() -> cartService.clearCart(testUser.getEmail()))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(productRepository, never()).incrementQuantity(anyLong(), anyInt(), anyLong());
     }
 
     @Test
@@ -140,25 +324,25 @@ class CartServiceTest {
                 .cart(testCart)
                 .product(testProduct)
                 .quantity(2)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
                 .build();
         testCart.getItems().add(itemToRemove);
 
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
         when(cartItemRepository.findById(1L)).thenReturn(Optional.of(itemToRemove));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
 
         cartService.removeFromCart(testUser.getEmail(), 1L);
 
         verify(cartItemRepository).delete(itemToRemove);
-        verify(productRepository).save(testProduct);
-        assertThat(testProduct.getQuantity()).isEqualTo(12); // 10 + 2
+        verify(productRepository).incrementQuantity(eq(1L), eq(2), anyLong()); // 10 + 2
     }
 
     @Test
     void whenCheckout_withEmptyCart_thenThrowException() {
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
 
         try {
             cartService.checkout(testUser.getEmail());
@@ -174,17 +358,117 @@ class CartServiceTest {
                 .cart(testCart)
                 .product(testProduct)
                 .quantity(2)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
                 .build();
         testCart.getItems().add(item);
 
-        when(userRepository.findByEmail(testUser.getEmail())).thenReturn(Optional.of(testUser));
-        when(cartRepository.findByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
         when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
 
         cartService.checkout(testUser.getEmail());
 
-        verify(cartItemRepository).deleteByCartId(testCart.getId());
+        InOrder inOrder = inOrder(cartItemRepository);
+        inOrder.verify(cartItemRepository).deleteAll(List.of(item));
+        inOrder.verify(cartItemRepository).flush();
         verify(cartRepository).save(testCart);
         assertThat(testCart.getItems()).isEmpty();
     }
+
+    @Test
+    void whenCheckout_thenCreateOrderWithPriceSnapshotAndPublishEvent() {
+        testCart.getItems().add(CartItem.builder()
+                .id(1L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(3)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
+                .build());
+
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> {
+            Order order = inv.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        Order order = cartService.checkout(testUser.getEmail());
+        testProduct.setPrice(999.0); // later catalog change
+
+        assertThat(order.getStatus()).isEqualTo(OrderStatus.PLACED);
+        assertThat(order.getUser()).isEqualTo(testUser);
+        assertThat(order.getTotal()).isEqualTo(300.0);
+        assertThat(order.getItemCount()).isEqualTo(3);
+        assertThat(order.getLines()).singleElement().satisfies(line -> {
+            assertThat(line.getProductId()).isEqualTo(1L);
+            assertThat(line.getProductName()).isEqualTo("Test Product");
+            assertThat(line.getUnitPrice()).isEqualTo(100.0);
+            assertThat(line.getLineTotal()).isEqualTo(300.0);
+        });
+        verify(productRepository, never()).decrementQuantity(anyLong(), anyInt(), anyLong());
+
+        ArgumentCaptor<OrderPlacedEvent> event = ArgumentCaptor.forClass(OrderPlacedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue()).isEqualTo(new OrderPlacedEvent(7L, testUser.getEmail(), 300.0, 3, 1));
+    }
+
+    @Test
+    void whenApplyOperations_thenLoadProductsOnceAndAdjustStockInOneBatch() {
+        CartItem existing = CartItem.builder()
+                .id(5L)
+                .cart(testCart)
+                .product(testProduct)
+                .quantity(2)
+                .reservedUntil(LocalDateTime.now().plusMinutes(5))
+                .build();
+        testCart.getItems().add(existing);
+        Product other = Product.builder().id(2L).name("Other").price(10.0).quantity(10).build();
+
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(other));
+        when(productRepository.adjustQuantities(eq(Map.of(1L, 2, 2L, -3)), anyLong())).thenReturn(Set.of());
+        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+
+        cartService.applyOperations(testUser.getEmail(), List.of(
+                new CartOperation(CartOperation.Type.ADD, 2L, null, 1),
+                new CartOperation(CartOperation.Type.ADD, 2L, null, 2),
+                new CartOperation(CartOperation.Type.REMOVE, null, 5L, null)));
+
+        assertThat(testCart.getItems()).singleElement().satisfies(item -> {
+            assertThat(item.getProduct()).isEqualTo(other);
+            assertThat(item.getQuantity()).isEqualTo(3);
+        });
+        verify(cartItemRepository).delete(existing);
+        verify(productRepository, never()).findById(anyLong());
+        verify(productRepository, never()).decrementQuantity(anyLong(), anyInt(), anyLong());
+    }
+
+    @Test
+    void whenApplyOperations_andStockIsInsufficient_thenRejectWholeBatch() {
+        Product other = Product.builder().id(2L).name("Other").price(10.0).quantity(1).build();
+
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+        when(productRepository.findAllById(List.of(2L))).thenReturn(List.of(other));
+        when(productRepository.adjustQuantities(eq(Map.of(2L, -5)), anyLong())).thenReturn(Set.of(2L));
+
+        assertThatThrownBy(() -> cartService.applyOperations(testUser.getEmail(), List.of(
+                new CartOperation(CartOperation.Type.ADD, 2L, null, 5))))
+                .isInstanceOf(InsufficientStockException.class);
+        assertThat(testCart.getItems()).isEmpty();
+        verifyNoInteractions(cartItemRepository);
+    }
+
+    @Test
+    void whenApplyOperations_withForeignItem_thenThrowNotFound() {
+        when(userIdResolver.resolve(testUser.getEmail())).thenReturn(testUser.getId());
+        when(cartRepository.findWithItemsByUserId(testUser.getId())).thenReturn(Optional.of(testCart));
+
+        assertThatThrownBy(() -> cartService.applyOperations(testUser.getEmail(), List.of(
+                new CartOperation(CartOperation.Type.REMOVE, null, 99L, null))))
+                .hasMessage("Cart item not found");
+    }
 }
@@ -0,0 +1,156 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Order;
+import com.alten.shop.model.OrderLine;
+import com.alten.shop.model.OrderStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartItemRepository;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.OrderRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CheckoutIntegrationTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @SpyBean
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .code("CHECKOUT-SKU")
+                .name("Checkout SKU")
+                .price(12.5)
+                .quantity(10)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build());
+        user = userRepository.save(User.builder()
+                .username("checkout")
+                .firstname("Checkout")
+                .email("checkout@order.test")
+                .password("secret")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(orderRepository);
+        orderRepository.deleteAll(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId()));
+        cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete);
+        userRepository.delete(user);
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void whenCheckout_thenOrderIsPersistedAndConfirmedAsynchronously() throws InterruptedException {
+        // Given
+        cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 4));
+
+        // When
+        Order placed = cartService.checkout(user.getEmail());
+
+        // Then
+        List<OrderLine> lines = transactionTemplate.execute(status ->
+                List.copyOf(orderRepository.findById(placed.getId()).orElseThrow().getLines()));
+        assertThat(lines).singleElement().satisfies(line -> {
+            assertThat(line.getProductCode()).isEqualTo("CHECKOUT-SKU");
+            assertThat(line.getUnitPrice()).isEqualTo(12.5);
+            assertThat(line.getQuantity()).isEqualTo(4);
+        });
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(6);
+        Boolean cartEmpty = transactionTemplate.execute(status ->
+                cartRepository.findByUserId(user.getId()).orElseThrow().getItems().isEmpty());
+        assertThat(cartEmpty).isTrue();
+        assertThat(awaitStatus(placed.getId(), OrderStatus.CONFIRMED)).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    @Test
+    void whenSweeperReleasesReservationDuringCheckout_thenStockIsTakenOnlyOnce() throws Exception {
+        // Given
+        cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 4));
+        cartItemRepository.findAll().stream()
+                .filter(item -> item.getProduct().getId().equals(product.getId()))
+                .forEach(item -> {
+                    item.setReservedUntil(LocalDateTime.now().minusMinutes(1));
+                    cartItemRepository.save(item);
+                });
+        // The sweeper commits after checkout read the cart and before it deletes the lines
+        ExecutorService sweeper = Executors.newSingleThreadExecutor();
+        Answer<?> repository = mockingDetails(orderRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            sweeper.submit(() -> cartService.releaseExpiredReservations(LocalDateTime.now(), 10)).get();
+            return repository.answer(invocation);
+        }).doAnswer(repository).when(orderRepository).save(any(Order.class));
+
+        // When
+        Order placed;
+        try {
+            placed = cartService.checkout(user.getEmail());
+        } finally {
+            sweeper.shutdown();
+        }
+
+        // Then
+        verify(orderRepository, times(2)).save(any(Order.class));
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(6);
+        assertThat(orderRepository.findByUserIdOrderByCreatedAtDesc(user.getId()))
+                .singleElement()
+                .satisfies(order -> assertThat(order.getId()).isEqualTo(placed.getId()));
+        assertThat(awaitStatus(placed.getId(), OrderStatus.CONFIRMED)).isEqualTo(OrderStatus.CONFIRMED);
+    }
+
+    private OrderStatus awaitStatus(Long orderId, OrderStatus expected) throws InterruptedException {
+        OrderStatus status = null;
+        for (int i = 0; i < 50 && status != expected; i++) {
+            status = orderRepository.findById(orderId).orElseThrow().getStatus();
+            if (status != expected) {
+                Thread.sleep(100);
+            }
+        }
+        return status;
+    }
+}
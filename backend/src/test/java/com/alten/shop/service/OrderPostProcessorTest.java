@@ -0,0 +1,54 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.OrderPlacedEvent;
+import com.alten.shop.model.OrderStatus;
+import com.alten.shop.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderPostProcessorTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderPostProcessor orderPostProcessor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderPostProcessor = new OrderPostProcessor(orderRepository, meterRegistry);
+    }
+
+    @Test
+    void whenOrderPlaced_thenConfirmOrderAndRecordStats() {
+        when(orderRepository.markStatus(eq(1L), eq(OrderStatus.CONFIRMED), any(LocalDateTime.class))).thenReturn(1);
+
+        orderPostProcessor.onOrderPlaced(new OrderPlacedEvent(1L, "test@test.com", 250.0, 5, 2));
+
+        assertThat(meterRegistry.counter("orders.placed").count()).isEqualTo(1.0);
+        assertThat(meterRegistry.summary("orders.amount").totalAmount()).isEqualTo(250.0);
+        assertThat(meterRegistry.summary("orders.items").totalAmount()).isEqualTo(5.0);
+    }
+
+    @Test
+    void whenOrderAlreadyConfirmed_thenDoNotCountItTwice() {
+        when(orderRepository.markStatus(eq(1L), eq(OrderStatus.CONFIRMED), any(LocalDateTime.class))).thenReturn(0);
+
+        orderPostProcessor.onOrderPlaced(new OrderPlacedEvent(1L, "test@test.com", 250.0, 5, 2));
+
+        assertThat(meterRegistry.counter("orders.placed").count()).isZero();
+    }
+}
@@ -3,17 +3,27 @@ package com.alten.shop.service;
 import com.alten.shop.model.InventoryStatus;
 import com.alten.shop.model.Product;
 import com.alten.shop.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.alten.shop.dto.ProductCursorPage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -21,6 +31,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +40,12 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ProductCache productCache = new ProductCache(Duration.ofMinutes(5), 100, new SimpleMeterRegistry());
+
     @InjectMocks
     private ProductService productService;
 
@@ -79,6 +96,87 @@ class ProductServiceTest {
         verify(productRepository, times(1)).findAll(pageable);
     }
 
+    @Test
+    void whenGetProductsAfterCursor_thenReturnNextPageAndCursor() {
+        // Given
+        Product second = Product.builder().id(2L).code("PROD002").build();
+        Product third = Product.builder().id(3L).code("PROD003").build();
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Arrays.asList(testProduct, second, third));
+
+        // When
+        ProductCursorPage<Product> result = productService.getProductsAfter("", 2, false);
+
+        // Then
+        assertThat(result.content()).extracting(Product::getId).containsExactly(1L, 2L);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(ProductService.decodeCursor(result.nextCursor())).isEqualTo(2L);
+        assertThat(result.totalElements()).isNull();
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void whenGetProductsAfterLastCursor_thenNoNextCursor() {
+        // Given
+        String cursor = ProductService.encodeCursor(1L);
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(11))).thenReturn(List.of());
+        when(productRepository.count()).thenReturn(1L);
+
+        // When
+        ProductCursorPage<Product> result = productService.getProductsAfter(cursor, 10, true);
+
+        // Then
+        assertThat(result.content()).isEmpty();
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+        assertThat(result.totalElements()).isEqualTo(1L);
+    }
+
+    @Test
+    void whenGetProductsAfterInvalidCursor_thenThrowException() {
+        assertThatThrownBy(() -> productService.getProductsAfter("not-a-cursor", 10, false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+    }
+
+    @Test
+    void whenGetDefaultProductPage_thenResultIsCappedAtDefaultLimit() {
+        // Given
+        ReflectionTestUtils.setField(productService, "defaultListLimit", 1);
+        Product second = Product.builder().id(2L).code("PROD002").build();
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testProduct, second));
+
+        // When
+        ProductCursorPage<Product> result = productService.getDefaultProductPage();
+
+        // Then
+        assertThat(result.content()).containsExactly(testProduct);
+        assertThat(result.hasNext()).isTrue();
+        verify(productRepository, never()).findAll();
+    }
+
+    @Test
+    void whenStreamAllProducts_thenReadInFetchSizeChunks() {
+        // Given
+        ReflectionTestUtils.setField(productService, "streamFetchSize", 2);
+        Product second = Product.builder().id(2L).code("PROD002").build();
+        Product third = Product.builder().id(3L).code("PROD003").build();
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(Arrays.asList(testProduct, second));
+        when(productRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(2)))
+                .thenReturn(Arrays.asList(third));
+
+        // When
+        List<Product> streamed = new ArrayList<>();
+        productService.streamAllProducts(streamed::add);
+
+        // Then
+        assertThat(streamed).extracting(Product::getId).containsExactly(1L, 2L, 3L);
+        verify(productRepository, times(2)).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        verify(entityManager, times(2)).clear();
+    }
+
     @Test
     void whenGetProductById_thenReturnProduct() {
         // Given
@@ -167,6 +265,26 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
+    @Test
+    void whenUpdateProductWithStaleVersion_thenThrowConflict() {
+        // Given
+        testProduct.setVersion(3L);
+        Product staleDetails = Product.builder()
+                .code("PROD001")
+                .name("Stale Update")
+                .price(1.0)
+                .quantity(1)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .version(2L)
+                .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When & Then
+        assertThatThrownBy(() -> productService.updateProduct(1L, staleDetails))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void whenDeleteProduct_thenProductIsDeleted() {
         // Given
@@ -208,4 +326,79 @@ class ProductServiceTest {
         assertThat(result).hasSize(1);
         verify(productRepository, times(1)).findByInventoryStatus(InventoryStatus.INSTOCK);
     }
+
+    @Test
+    void whenGetProductByIdTwice_thenSecondCallIsServedFromCache() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+
+        // When
+        productService.getProductById(1L);
+        Product result = productService.getProductById(1L);
+
+        // Then
+        assertThat(result.getCode()).isEqualTo("PROD001");
+        verify(productRepository, times(1)).findById(1L);
+        assertThat(productCache.stats().get("products.byId").hitCount()).isEqualTo(1);
+        assertThat(productCache.stats().get("products.byId").missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenGetProductsByCategoryTwice_thenSecondCallIsServedFromCache() {
+        // Given
+        when(productRepository.findByCategory("Electronics")).thenReturn(Arrays.asList(testProduct));
+
+        // When
+        productService.getProductsByCategory("Electronics");
+        List<Product> result = productService.getProductsByCategory("Electronics");
+
+        // Then
+        assertThat(result).hasSize(1);
+        verify(productRepository, times(1)).findByCategory("Electronics");
+    }
+
+    @Test
+    void whenUpdateProduct_thenOldAndNewKeysAreEvicted() {
+        // Given
+        testProduct.setCategory("Electronics");
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByCode("PROD001")).thenReturn(Optional.of(testProduct));
+        when(productRepository.findByCategory("Electronics")).thenReturn(Arrays.asList(testProduct));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.getProductById(1L);
+        productService.getProductByCode("PROD001");
+        productService.getProductsByCategory("Electronics");
+
+        Product details = Product.builder()
+                .code("PROD001-V2")
+                .name("Renamed")
+                .category("Audio")
+                .price(10.0)
+                .quantity(1)
+                .inventoryStatus(InventoryStatus.LOWSTOCK)
+                .build();
+
+        // When
+        productService.updateProduct(1L, details);
+        productService.getProductByCode("PROD001");
+        productService.getProductsByCategory("Electronics");
+
+        // Then
+        verify(productRepository, times(2)).findByCode("PROD001");
+        verify(productRepository, times(2)).findByCategory("Electronics");
+    }
+
+    @Test
+    void whenDeleteProduct_thenCachedEntryIsEvicted() {
+        // Given
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        productService.getProductById(1L);
+
+        // When
+        productService.deleteProduct(1L);
+        productService.getProductById(1L);
+
+        // Then
+        verify(productRepository, times(3)).findById(1L);
+    }
 }
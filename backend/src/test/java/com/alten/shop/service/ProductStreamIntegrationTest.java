@@ -0,0 +1,69 @@
+package com.alten.shop.service;
+
+import com.alten.shop.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams the seeded catalog with an EntityManager bound to the thread, as open-in-view
+ * does for the StreamingResponseBody thread, and checks that it only ever holds one chunk.
+ */
+@SpringBootTest(properties = "product.stream.fetch-size=" + ProductStreamIntegrationTest.FETCH_SIZE)
+@ActiveProfiles("test")
+class ProductStreamIntegrationTest {
+
+    static final int FETCH_SIZE = 2;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        entityManager = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(entityManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+        entityManager.close();
+    }
+
+    @Test
+    void whenStreamAllProductsWithBoundEntityManager_thenPersistenceContextHoldsOneChunk() {
+        // Given
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        List<Integer> managed = new ArrayList<>();
+        List<Product> streamed = new ArrayList<>();
+
+        // When
+        productService.streamAllProducts(product -> {
+            streamed.add(product);
+            managed.add(session.getPersistenceContext().getNumberOfManagedEntities());
+        });
+
+        // Then
+        assertThat(streamed).hasSizeGreaterThan(2 * FETCH_SIZE);
+        assertThat(managed).allSatisfy(count -> assertThat(count).isLessThanOrEqualTo(FETCH_SIZE));
+        assertThat(session.getPersistenceContext().getNumberOfManagedEntities()).isZero();
+    }
+}
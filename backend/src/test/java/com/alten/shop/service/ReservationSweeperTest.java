@@ -0,0 +1,109 @@
+package com.alten.shop.service;
+
+import com.alten.shop.dto.AddToCartRequest;
+import com.alten.shop.model.CartItem;
+import com.alten.shop.model.InventoryStatus;
+import com.alten.shop.model.Product;
+import com.alten.shop.model.User;
+import com.alten.shop.repository.CartItemRepository;
+import com.alten.shop.repository.CartRepository;
+import com.alten.shop.repository.ProductRepository;
+import com.alten.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "cart.reservation.sweep-batch-size=1")
+@ActiveProfiles("test")
+class ReservationSweeperTest {
+
+    @Autowired
+    private ReservationSweeper reservationSweeper;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    private Product product;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder()
+                .code("SWEEP-SKU")
+                .name("Sweep SKU")
+                .price(10.0)
+                .quantity(10)
+                .inventoryStatus(InventoryStatus.INSTOCK)
+                .build());
+        user = userRepository.save(User.builder()
+                .username("sweeper")
+                .firstname("Sweeper")
+                .email("sweeper@reservation.test")
+                .password("secret")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        cartRepository.findByUserId(user.getId()).ifPresent(cartRepository::delete);
+        userRepository.delete(user);
+        productRepository.deleteById(product.getId());
+    }
+
+    @Test
+    void whenReservationExpires_thenSweeperReturnsStock() {
+        // Given
+        assertThat(productService.getProductById(product.getId()).getQuantity()).isEqualTo(10);
+        cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 3));
+        cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 1));
+        CartItem item = cartItemRepository.findAll().stream()
+                .filter(i -> i.getProduct().getId().equals(product.getId()))
+                .findFirst().orElseThrow();
+        item.setReservedUntil(LocalDateTime.now().minusMinutes(1));
+        cartItemRepository.save(item);
+        assertThat(productService.getProductById(product.getId()).getQuantity()).isEqualTo(6);
+
+        // When
+        reservationSweeper.sweep();
+
+        // Then
+        assertThat(productService.getProductById(product.getId()).getQuantity()).isEqualTo(10);
+        CartItem released = cartItemRepository.findById(item.getId()).orElseThrow();
+        assertThat(released.holdsStock()).isFalse();
+        assertThat(released.getQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    void whenReservationIsStillValid_thenSweeperLeavesItAlone() {
+        // Given
+        cartService.addToCart(user.getEmail(), new AddToCartRequest(product.getId(), 2));
+
+        // When
+        reservationSweeper.sweep();
+
+        // Then
+        assertThat(productRepository.findById(product.getId()).orElseThrow().getQuantity()).isEqualTo(8);
+    }
+}
@@ -1,17 +1,24 @@
-import { Product } from './product.model';
+export interface CartProduct {
+    id: number;
+    name: string;
+    price: number;
+    image?: string;
+    category?: string;
+}
 
 export interface CartItem {
     id?: number;
-    product: Product;
+    product: CartProduct;
     quantity: number;
-    addedAt?: string;
+    lineTotal: number;
 }
 
+// Totals are computed by the backend
 export interface Cart {
     id?: number;
     items: CartItem[];
-    createdAt?: string;
-    updatedAt?: string;
+    subtotal: number;
+    itemCount: number;
 }
 
 export interface AddToCartRequest {
@@ -20,10 +20,7 @@ export class CartComponent implements OnInit {
 
   constructor(public cartService: CartService) {
     this.cart = this.cartService.cart;
-    this.totalPrice = computed(() => {
-      const currentCart = this.cart();
-      return currentCart?.items.reduce((sum, item) => sum + (item.product.price * item.quantity), 0) ?? 0;
-    });
+    this.totalPrice = computed(() => this.cart()?.subtotal ?? 0);
   }
 
   ngOnInit() {
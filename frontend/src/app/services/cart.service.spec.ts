@@ -28,7 +28,9 @@ describe('CartService', () => {
   it('should get cart', () => {
     const mockCart: Cart = {
       id: 1,
-      items: []
+      items: [],
+      subtotal: 0,
+      itemCount: 0
     };
 
     service.getCart().subscribe(cart => {
@@ -43,7 +45,9 @@ describe('CartService', () => {
   it('should add item to cart', () => {
     const mockCart: Cart = {
       id: 1,
-      items: []
+      items: [],
+      subtotal: 0,
+      itemCount: 0
     };
 
     const addToCartRequest = {
@@ -64,7 +68,9 @@ describe('CartService', () => {
   it('should update cart item quantity', () => {
     const mockCart: Cart = {
       id: 1,
-      items: []
+      items: [],
+      subtotal: 0,
+      itemCount: 0
     };
 
     service.updateQuantity(1, 3).subscribe(cart => {
@@ -79,7 +85,9 @@ describe('CartService', () => {
   it('should remove item from cart', () => {
     const mockCart: Cart = {
       id: 1,
-      items: []
+      items: [],
+      subtotal: 0,
+      itemCount: 0
     };
 
     service.removeItem(1).subscribe(cart => {
@@ -10,10 +10,7 @@ export class CartService {
     private readonly API_URL = 'http://localhost:8080/api/cart';
 
     public cart = signal<Cart | null>(null);
-    cartItemCount = computed(() => {
-        const currentCart = this.cart();
-        return currentCart?.items.reduce((sum, item) => sum + item.quantity, 0) ?? 0;
-    });
+    cartItemCount = computed(() => this.cart()?.itemCount ?? 0);
 
     // Subject to notify when cart items change (for product list refresh)
     public cartChanged$ = new Subject<void>();